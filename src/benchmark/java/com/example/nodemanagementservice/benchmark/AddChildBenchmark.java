@@ -0,0 +1,46 @@
+package com.example.nodemanagementservice.benchmark;
+
+import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds a leaf under a node at a given depth; the closure table writes one row per ancestor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddChildBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int depth;
+
+    private String parentName;
+
+    @Setup(Level.Trial)
+    public void createParent(BenchmarkContext context) {
+        // The root is at depth 0, so the new leaves end up at the requested depth.
+        parentName = context.createChain(BenchmarkContext.ROOT, depth - 1);
+    }
+
+    @Benchmark
+    public Object addChild(BenchmarkContext context) {
+        return context.nodeService().addChild(parentName,
+                ChildNodeRequest.builder().childName(context.uniqueName("leaf")).build());
+    }
+}
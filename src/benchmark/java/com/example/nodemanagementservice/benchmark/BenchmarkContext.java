@@ -0,0 +1,139 @@
+package com.example.nodemanagementservice.benchmark;
+
+import com.example.nodemanagementservice.NodeManagementServiceApplication;
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.service.NodeService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spring context shared by all benchmarks of a fork, started without the web layer.
+ * {@code database=h2} (default) uses an in-memory H2 database in MySQL mode;
+ * {@code database=mysql} uses the datasource of application.yaml, i.e. a local MySQL server.
+ * {@code engine} selects the tree storage engine, so the same workload can be compared across layouts.
+ * Extra application properties can be passed as {@code -Dbenchmark.properties=key=value,key=value}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    static final String ROOT = "root";
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"h2"})
+    public String database;
+
+    @Param({"closure-table", "materialized-path", "nested-set", "adjacency-list", "in-memory"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+    private NodeService nodeService;
+    private String runId;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> args = new ArrayList<>();
+        // Measure the storage, not the descendant cache.
+        args.add("--node-management.descendant-cache.enabled=false");
+        args.add("--node-management.storage.engine=" + engine);
+        if ("in-memory".equals(engine)) {
+            // Start every trial from an empty write-ahead log instead of replaying earlier runs.
+            Path dataDir = Path.of(System.getProperty("java.io.tmpdir"), "node-benchmark-" + System.nanoTime());
+            args.add("--node-management.memory.data-dir=" + dataDir);
+        }
+        if ("h2".equals(database)) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            // schema.sql creates the tables; keep Hibernate from recreating them for the embedded database.
+            args.add("--spring.jpa.hibernate.ddl-auto=none");
+        } else if (!"mysql".equals(database)) {
+            throw new IllegalArgumentException("Unknown database " + database);
+        }
+        String extra = System.getProperty("benchmark.properties", "");
+        for (String property : extra.split(",")) {
+            if (!property.isBlank()) {
+                args.add("--" + property.trim());
+            }
+        }
+        context = new SpringApplicationBuilder(NodeManagementServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        nodeService = context.getBean(NodeService.class);
+        // Names must not collide with earlier runs against a persistent MySQL database.
+        runId = Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public NodeService nodeService() {
+        return nodeService;
+    }
+
+    /**
+     * @return a node name not used before in this run
+     */
+    public String uniqueName(String prefix) {
+        return prefix + "-" + runId + "-" + (sequence++);
+    }
+
+    /**
+     * Creates a chain of nodes under a parent.
+     *
+     * @return the name of the deepest node
+     */
+    public String createChain(String parentName, int length) {
+        List<NodeEdge> edges = new ArrayList<>(length);
+        String parent = parentName;
+        for (int i = 0; i < length; i++) {
+            String child = uniqueName("chain");
+            edges.add(new NodeEdge(parent, child));
+            parent = child;
+        }
+        nodeService.addEdges(edges);
+        return parent;
+    }
+
+    /**
+     * Creates a balanced subtree of a given number of nodes, including its root, under a parent.
+     *
+     * @return the name of the subtree root
+     */
+    public String createSubtree(String parentName, int size, int branching) {
+        return createSubtree(parentName, new TreeGenerator(size, Integer.MAX_VALUE, branching, 0, 0));
+    }
+
+    /**
+     * Creates a generated subtree under a parent, in batches.
+     *
+     * @return the name of the subtree root
+     */
+    public String createSubtree(String parentName, TreeGenerator generator) {
+        String prefix = uniqueName("node") + "-";
+        List<NodeEdge> batch = new ArrayList<>();
+        generator.generate(parentName, prefix, edge -> {
+            batch.add(edge);
+            if (batch.size() == BATCH_SIZE) {
+                nodeService.addEdges(batch);
+                batch.clear();
+            }
+        });
+        nodeService.addEdges(batch);
+        return prefix + 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.nodemanagementservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes a balanced subtree of a given size, rebuilt before every invocation outside of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DeleteChildBenchmark {
+
+    @Param({"100", "10000"})
+    public int subtreeSize;
+
+    private String parentName;
+    private String subtreeRoot;
+
+    @Setup(Level.Trial)
+    public void createParent(BenchmarkContext context) {
+        parentName = context.createChain(BenchmarkContext.ROOT, 10);
+    }
+
+    @Setup(Level.Iteration)
+    public void createSubtree(BenchmarkContext context) {
+        subtreeRoot = context.createSubtree(parentName, subtreeSize, 10);
+    }
+
+    @Benchmark
+    public boolean deleteChild(BenchmarkContext context) {
+        return context.nodeService().deleteChild(parentName, subtreeRoot);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.nodemanagementservice.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a synthetic tree through {@code NodeService}, against the database of application.yaml by default.
+ * <p>
+ * Options: {@code database} (mysql or h2), {@code engine} (closure-table), {@code parent} (root), {@code size} (100000),
+ * {@code depth} (8), {@code branching} (5), {@code skew} (0.3) and {@code seed} (42).
+ */
+public final class GenerateTree {
+
+    private GenerateTree() {
+        // restrict instantiation
+    }
+
+    public static void main(String[] args) {
+        var options = new Options(args);
+        var generator = options.treeGenerator(100_000);
+        var context = new BenchmarkContext();
+        context.database = options.get("database", "mysql");
+        context.engine = options.get("engine", "closure-table");
+        context.start();
+        try {
+            long started = System.nanoTime();
+            String root = context.createSubtree(options.get("parent", BenchmarkContext.ROOT), generator);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            System.out.printf("Generated subtree %s in %d ms%n", root, millis);
+        } finally {
+            context.stop();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.nodemanagementservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads every descendant of a balanced subtree of a given size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetDescendantsBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int subtreeSize;
+
+    @Param({"10"})
+    public int branching;
+
+    private String subtreeRoot;
+
+    @Setup(Level.Trial)
+    public void createSubtree(BenchmarkContext context) {
+        subtreeRoot = context.createSubtree(BenchmarkContext.ROOT, subtreeSize, branching);
+    }
+
+    @Benchmark
+    public List<String> getDescendants(BenchmarkContext context) {
+        return context.nodeService().getDescendants(subtreeRoot, null, null);
+    }
+}
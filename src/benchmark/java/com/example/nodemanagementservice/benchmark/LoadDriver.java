@@ -0,0 +1,262 @@
+package com.example.nodemanagementservice.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a mixed read/write workload against the REST endpoints of a running service
+ * and reports throughput and latency percentiles per operation.
+ * <p>
+ * A working tree is first generated and imported under {@code root}; reads target its nodes, writes add,
+ * move and delete leaves created by the driver itself so the tree shape stays stable.
+ * <p>
+ * Options: {@code url} (http://localhost:8080), {@code threads} (8), {@code warmup} seconds (10),
+ * {@code duration} seconds (60), {@code mix} (descendants=60,ancestors=20,add=10,move=5,delete=5),
+ * {@code report} (target/load-report.csv), plus the tree generator options of {@link Options#treeGenerator}
+ * with a default size of 10000.
+ */
+public final class LoadDriver {
+
+    enum Operation { DESCENDANTS, ANCESTORS, ADD, MOVE, DELETE }
+
+    private static final int IMPORT_CHUNK = 10_000;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private List<String> treeNodes;
+
+    private LoadDriver(String baseUrl, String mix) {
+        this.baseUrl = baseUrl + "/api/nodes";
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new Options(args);
+        var driver = new LoadDriver(options.get("url", "http://localhost:8080"),
+                options.get("mix", "descendants=60,ancestors=20,add=10,move=5,delete=5"));
+        driver.createTree(options.treeGenerator(10_000));
+
+        int threads = options.getInt("threads", 8);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(options.getInt("warmup", 10));
+        long durationNanos = TimeUnit.SECONDS.toNanos(options.getInt("duration", 60));
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long measureUntil = measureFrom + durationNanos;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Recorder>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> driver.run(thread, measureFrom, measureUntil)));
+        }
+        var total = new Recorder();
+        for (Future<Recorder> future : futures) {
+            total.merge(future.get());
+        }
+        executor.shutdown();
+
+        total.report(TimeUnit.NANOSECONDS.toSeconds(durationNanos), Path.of(options.get("report", "target/load-report.csv")));
+    }
+
+    /**
+     * Generates the working tree and imports it through the NDJSON import endpoint, in chunks.
+     */
+    private void createTree(TreeGenerator generator) throws IOException, InterruptedException {
+        treeNodes = new ArrayList<>();
+        var body = new StringBuilder();
+        int[] pending = {0};
+        List<String> chunks = new ArrayList<>();
+        generator.generate("root", "load-" + runId + "-", edge -> {
+            treeNodes.add(edge.getChildName());
+            body.append("{\"parentName\":\"").append(edge.getParentName())
+                    .append("\",\"childName\":\"").append(edge.getChildName()).append("\"}\n");
+            if (++pending[0] == IMPORT_CHUNK) {
+                chunks.add(body.toString());
+                body.setLength(0);
+                pending[0] = 0;
+            }
+        });
+        chunks.add(body.toString());
+        for (String chunk : chunks) {
+            var response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/import"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(chunk))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Import failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+        System.out.printf("Imported a working tree of %d nodes%n", treeNodes.size());
+    }
+
+    private Recorder run(int thread, long measureFrom, long measureUntil) {
+        var random = ThreadLocalRandom.current();
+        var recorder = new Recorder();
+        List<String[]> leaves = new ArrayList<>(); // {leaf, parent}
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        long sequence = 0;
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            Operation operation = pick(random.nextInt(totalWeight));
+            if ((operation == Operation.MOVE || operation == Operation.DELETE) && leaves.isEmpty()) {
+                operation = Operation.ADD;
+            }
+            HttpRequest request;
+            String[] leaf = null;
+            switch (operation) {
+                case DESCENDANTS -> request = get("/" + randomNode(random) + "/descendants");
+                case ANCESTORS -> request = get("/" + randomNode(random) + "/ancestors");
+                case ADD -> {
+                    leaf = new String[]{"load-" + runId + "-t" + thread + "-" + sequence++, randomNode(random)};
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + leaf[1] + "/children"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"childName\":\"" + leaf[0] + "\"}"))
+                            .build();
+                }
+                case MOVE -> {
+                    leaf = leaves.get(random.nextInt(leaves.size()));
+                    String newParent = randomNode(random);
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + leaf[0] + "/parent/" + newParent))
+                            .PUT(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    leaf = new String[]{leaf[0], newParent, leaf[1]};
+                }
+                default -> {
+                    leaf = leaves.remove(random.nextInt(leaves.size()));
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + leaf[1] + "/children/" + leaf[0]))
+                            .DELETE()
+                            .build();
+                }
+            }
+
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long latency = System.nanoTime() - now;
+            if (now >= measureFrom) {
+                recorder.record(operation, latency, status >= 200 && status < 300);
+            }
+
+            boolean success = status >= 200 && status < 300;
+            if (operation == Operation.ADD && success) {
+                leaves.add(leaf);
+            } else if (operation == Operation.MOVE && success) {
+                for (String[] known : leaves) {
+                    if (known[0].equals(leaf[0])) {
+                        known[1] = leaf[1];
+                    }
+                }
+            }
+        }
+        return recorder;
+    }
+
+    private Operation pick(int ticket) {
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private String randomNode(ThreadLocalRandom random) {
+        return treeNodes.get(random.nextInt(treeNodes.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    /**
+     * Latencies and error counts per operation.
+     */
+    private static final class Recorder {
+
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long latencyNanos, boolean success) {
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = latencies.computeIfAbsent(operation, o -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count << 1);
+                latencies.put(operation, values);
+            }
+            values[count] = latencyNanos;
+            counts.put(operation, count + 1);
+            if (!success) {
+                errors.merge(operation, 1, Integer::sum);
+            }
+        }
+
+        void merge(Recorder other) {
+            other.counts.forEach((operation, count) -> {
+                long[] values = other.latencies.get(operation);
+                for (int i = 0; i < count; i++) {
+                    record(operation, values[i], true);
+                }
+                errors.merge(operation, other.errors.getOrDefault(operation, 0), Integer::sum);
+            });
+        }
+
+        void report(long seconds, Path file) throws IOException {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (var csv = new PrintWriter(Files.newBufferedWriter(file))) {
+                csv.println("operation,count,errors,throughput_per_s,p50_ms,p99_ms,p999_ms");
+                System.out.printf("%-12s %10s %8s %12s %10s %10s %10s%n", "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms");
+                for (Operation operation : Operation.values()) {
+                    int count = counts.getOrDefault(operation, 0);
+                    if (count == 0) {
+                        continue;
+                    }
+                    long[] values = Arrays.copyOf(latencies.get(operation), count);
+                    Arrays.sort(values);
+                    double throughput = (double) count / Math.max(1, seconds);
+                    double p50 = percentile(values, 0.50);
+                    double p99 = percentile(values, 0.99);
+                    double p999 = percentile(values, 0.999);
+                    int failed = errors.getOrDefault(operation, 0);
+                    System.out.printf("%-12s %10d %8d %12.1f %10.2f %10.2f %10.2f%n", operation, count, failed, throughput, p50, p99, p999);
+                    csv.printf("%s,%d,%d,%.1f,%.3f,%.3f,%.3f%n", operation, count, failed, throughput, p50, p99, p999);
+                }
+            }
+            System.out.println("Report written to " + file);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
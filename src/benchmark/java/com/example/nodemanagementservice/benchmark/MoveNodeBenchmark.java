@@ -0,0 +1,54 @@
+package com.example.nodemanagementservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a balanced subtree of a given size back and forth between two parents at a given depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveNodeBenchmark {
+
+    @Param({"100", "10000"})
+    public int subtreeSize;
+
+    @Param({"10"})
+    public int parentDepth;
+
+    private String[] parents;
+    private String subtreeRoot;
+    private int target;
+
+    @Setup(Level.Trial)
+    public void createSubtree(BenchmarkContext context) {
+        parents = new String[]{
+                context.createChain(BenchmarkContext.ROOT, parentDepth),
+                context.createChain(BenchmarkContext.ROOT, parentDepth)
+        };
+        subtreeRoot = context.createSubtree(parents[0], subtreeSize, 10);
+        target = 1;
+    }
+
+    @Benchmark
+    public void moveNode(BenchmarkContext context) {
+        context.nodeService().moveNode(subtreeRoot, parents[target]);
+        target = 1 - target;
+    }
+}
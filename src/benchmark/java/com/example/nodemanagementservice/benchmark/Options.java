@@ -0,0 +1,46 @@
+package com.example.nodemanagementservice.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options given as {@code key=value} arguments.
+ */
+final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+    }
+
+    String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    int getInt(String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+
+    long getLong(String key, long defaultValue) {
+        return values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+    }
+
+    double getDouble(String key, double defaultValue) {
+        return values.containsKey(key) ? Double.parseDouble(values.get(key)) : defaultValue;
+    }
+
+    /**
+     * Builds a tree generator from the {@code size}, {@code depth}, {@code branching}, {@code skew} and {@code seed} options.
+     */
+    TreeGenerator treeGenerator(int defaultSize) {
+        return new TreeGenerator(getInt("size", defaultSize), getInt("depth", 8), getInt("branching", 5),
+                getDouble("skew", 0.3), getLong("seed", 42));
+    }
+}
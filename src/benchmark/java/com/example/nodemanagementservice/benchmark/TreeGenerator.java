@@ -0,0 +1,72 @@
+package com.example.nodemanagementservice.benchmark;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Generates synthetic trees as parent/child edges, parents first, without holding the tree in memory.
+ * <p>
+ * Nodes are expanded breadth first. Every expanded node above {@code maxDepth} gets {@code branching} children;
+ * its first child is always expanded further, the others only with probability {@code 1 - skew}.
+ * A skew of 0 gives a balanced tree, a skew of 1 a deep spine with leaves hanging off it.
+ * A branching of 1 gives a chain, a large branching with a depth of 1 a wide fan-out.
+ * The same seed always produces the same tree.
+ */
+public class TreeGenerator {
+
+    private record Pending(String name, int depth) {
+    }
+
+    private final int size;
+    private final int maxDepth;
+    private final int branching;
+    private final double skew;
+    private final long seed;
+
+    public TreeGenerator(int size, int maxDepth, int branching, double skew, long seed) {
+        if (size < 1 || maxDepth < 1 || branching < 1 || skew < 0 || skew > 1) {
+            throw new IllegalArgumentException("Expected size, maxDepth, branching >= 1 and 0 <= skew <= 1");
+        }
+        this.size = size;
+        this.maxDepth = maxDepth;
+        this.branching = branching;
+        this.skew = skew;
+        this.seed = seed;
+    }
+
+    /**
+     * Emits the edges of a tree of at most {@code size} nodes hanging under an existing parent.
+     * The subtree root is the first child emitted.
+     *
+     * @param parentName the existing node the tree is generated under
+     * @param namePrefix the prefix of the generated node names, followed by a sequence number
+     * @param action the action invoked with every edge, parents first
+     * @return the number of nodes generated
+     */
+    public int generate(String parentName, String namePrefix, Consumer<NodeEdge> action) {
+        var random = new Random(seed);
+        Deque<Pending> expandable = new ArrayDeque<>();
+        String rootName = namePrefix + 0;
+        action.accept(new NodeEdge(parentName, rootName));
+        expandable.add(new Pending(rootName, 0));
+        int generated = 1;
+        while (!expandable.isEmpty() && generated < size) {
+            Pending node = expandable.poll();
+            if (node.depth() >= maxDepth) {
+                continue;
+            }
+            for (int i = 0; i < branching && generated < size; i++) {
+                String child = namePrefix + generated++;
+                action.accept(new NodeEdge(node.name(), child));
+                if (i == 0 || random.nextDouble() >= skew) {
+                    expandable.add(new Pending(child, node.depth() + 1));
+                }
+            }
+        }
+        return generated;
+    }
+}
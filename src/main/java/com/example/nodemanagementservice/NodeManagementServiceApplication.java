@@ -1,12 +1,23 @@
 package com.example.nodemanagementservice;
 
+import com.example.nodemanagementservice.service.EdgeFormat;
+import com.example.nodemanagementservice.service.TreeImportService;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
 
 @SpringBootApplication
 @OpenAPIDefinition(
@@ -35,4 +46,22 @@ public class NodeManagementServiceApplication {
 		SpringApplication.run(NodeManagementServiceApplication.class, args);
 	}
 
+	/**
+	 * Imports the edge list named by {@code node-management.import.file} once the application has started,
+	 * e.g. {@code java -jar app.jar --node-management.import.file=tree.csv.gz}.
+	 * The format follows the file extension (.csv, .ndjson or .jsonl, optionally gzipped).
+	 */
+	@Bean
+	@ConditionalOnProperty("node-management.import.file")
+	ApplicationRunner treeImportRunner(TreeImportService treeImportService,
+									   @Value("${node-management.import.file}") Path file) {
+		return args -> {
+			InputStream input = Files.newInputStream(file);
+			if (file.getFileName().toString().endsWith(".gz")) {
+				input = new GZIPInputStream(input, 1 << 16);
+			}
+			treeImportService.importEdges(input, EdgeFormat.fromFileName(file.getFileName().toString()));
+		};
+	}
+
 }
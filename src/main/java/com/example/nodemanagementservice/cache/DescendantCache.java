@@ -0,0 +1,80 @@
+package com.example.nodemanagementservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded cache of descendant lists keyed by ancestor id and depth range.
+ * Writers evict only the entries of the ancestors whose subtree changed; entries of unrelated nodes survive.
+ */
+@Slf4j
+@Component
+public class DescendantCache {
+
+    private record Key(long ancestorId, int minDepth, int maxDepth) {
+    }
+
+    private final boolean enabled;
+    private final int maxEntrySize;
+    private final LruCache<Key, List<String>> cache;
+
+    public DescendantCache(@Value("${node-management.descendant-cache.enabled:true}") boolean enabled,
+                           @Value("${node-management.descendant-cache.max-size:1000}") int maxSize,
+                           @Value("${node-management.descendant-cache.max-entry-size:10000}") int maxEntrySize) {
+        this.enabled = enabled;
+        this.maxEntrySize = maxEntrySize;
+        this.cache = new LruCache<>(maxSize);
+        log.info("Descendant cache {} (max size {}, max entry size {})", enabled ? "enabled" : "disabled", maxSize, maxEntrySize);
+    }
+
+    /**
+     * @return true when there is nothing to invalidate, so writers can clear the cache instead of looking up the affected ancestors
+     */
+    public boolean isEmpty() {
+        return !enabled || cache.size() == 0;
+    }
+
+    /**
+     * @return the cached descendant names, or null if not cached
+     */
+    public List<String> get(long ancestorId, int minDepth, int maxDepth) {
+        return enabled ? cache.get(new Key(ancestorId, minDepth, maxDepth)) : null;
+    }
+
+    /**
+     * @return the token to pass to {@link #put} once the descendants have been read from the database
+     */
+    public long generation() {
+        return cache.generation();
+    }
+
+    public void put(long ancestorId, int minDepth, int maxDepth, List<String> descendants, long generation) {
+        if (enabled && descendants.size() <= maxEntrySize) {
+            cache.putIfUnchanged(new Key(ancestorId, minDepth, maxDepth), List.copyOf(descendants), generation);
+        }
+    }
+
+    /**
+     * Drops every entry whose ancestor is one of the given node ids.
+     */
+    public void evictAncestors(Collection<Long> ancestorIds) {
+        if (enabled && !ancestorIds.isEmpty()) {
+            Set<Long> affected = new HashSet<>(ancestorIds);
+            cache.removeIf((key, descendants) -> affected.contains(key.ancestorId()));
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public LruCache<?, List<String>> statistics() {
+        return cache;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.nodemanagementservice.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded, thread-safe map evicting the least recently used entry, with hit/miss/eviction counters.
+ * <p>
+ * Every removal bumps a generation counter. A reader that computed a value from the database records the
+ * generation before the read and stores the value with {@link #putIfUnchanged}, so a value read concurrently
+ * with an invalidation is dropped instead of being cached stale.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a value unless an invalidation happened since {@code expectedGeneration} was read.
+     */
+    public synchronized void putIfUnchanged(K key, V value, long expectedGeneration) {
+        if (generation == expectedGeneration) {
+            entries.put(key, value);
+        }
+    }
+
+    public synchronized void remove(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void removeIf(BiPredicate<K, V> predicate) {
+        generation++;
+        entries.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue()));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.nodemanagementservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Bounded cache resolving node names to node ids, so the usual "look up the node, then act" flow
+ * can use a reference to the row instead of querying {@code nodes} by name every time.
+ */
+@Slf4j
+@Component
+public class NodeNameCache {
+
+    private final boolean enabled;
+    private final LruCache<String, Long> cache;
+
+    public NodeNameCache(@Value("${node-management.name-cache.enabled:true}") boolean enabled,
+                         @Value("${node-management.name-cache.max-size:100000}") int maxSize) {
+        this.enabled = enabled;
+        this.cache = new LruCache<>(maxSize);
+        log.info("Node name cache {} (max size {})", enabled ? "enabled" : "disabled", maxSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the cached id of the node, or null if unknown
+     */
+    public Long get(String name) {
+        return enabled ? cache.get(name) : null;
+    }
+
+    /**
+     * @return the token to pass to {@link #put} once the id has been read from the database
+     */
+    public long generation() {
+        return cache.generation();
+    }
+
+    public void put(String name, Long id, long generation) {
+        if (enabled) {
+            cache.putIfUnchanged(name, id, generation);
+        }
+    }
+
+    /**
+     * Drops every entry pointing to one of the given node ids.
+     */
+    public void evictIds(Collection<Long> ids) {
+        if (enabled) {
+            Set<Long> removed = ids instanceof Set<Long> set ? set : new HashSet<>(ids);
+            cache.removeIf((name, id) -> removed.contains(id));
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public LruCache<String, Long> statistics() {
+        return cache;
+    }
+}
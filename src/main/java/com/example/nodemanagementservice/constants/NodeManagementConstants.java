@@ -6,8 +6,19 @@ public final class NodeManagementConstants {
     }
     public static final String  STATUS_201 = "201";
     public static final String  MESSAGE_201 = "Node created and added successfully";
+    public static final String  MESSAGE_201_BULK = "Nodes created and added successfully";
     public static final String  STATUS_200 = "200";
     public static final String  MESSAGE_200 = "Request processed successfully";
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+    public static final String  DEFAULT_PAGE_LIMIT = "100";
+    public static final int  MAX_PAGE_LIMIT = 1000;
+    public static final String  STREAM_FETCH_SIZE = "1000";
+    public static final int  BATCH_SIZE = 1000;
+    public static final int  ID_ALLOCATION_SIZE = 50;
+    public static final int  IMPORT_BATCH_SIZE = 10000;
+    public static final long  NESTED_SET_GAP = 64;
+    public static final long  NESTED_SET_ROOT_WIDTH = 1L << 48;
+    // Size of the nodes.path column of the materialized-path engine.
+    public static final int  MATERIALIZED_PATH_MAX_LENGTH = 500;
 }
@@ -1,11 +1,18 @@
 package com.example.nodemanagementservice.controller;
 
 import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.BulkNodeResponse;
 import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.dto.ChildNodeTreeRequest;
+import com.example.nodemanagementservice.dto.DescendantPageResponse;
 import com.example.nodemanagementservice.dto.ErrorResponse;
+import com.example.nodemanagementservice.dto.ImportResponse;
 import com.example.nodemanagementservice.dto.NodeResponse;
 import com.example.nodemanagementservice.exception.NodeAlreadyExistsException;
+import com.example.nodemanagementservice.service.EdgeFormat;
 import com.example.nodemanagementservice.service.NodeService;
+import com.example.nodemanagementservice.service.TreeImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,12 +20,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -27,6 +41,8 @@ import java.util.List;
 public class NodeController {
 
     private final NodeService nodeService;
+    private final TreeImportService treeImportService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Add a new child node to the given parent node",
@@ -71,6 +87,92 @@ public class NodeController {
                 .body(new NodeResponse(NodeManagementConstants.STATUS_201, NodeManagementConstants.MESSAGE_201));
     }
 
+    @Operation(
+            summary = "Add a tree of new child nodes to the given parent node",
+            description = "This API adds a list of child nodes, each optionally with its own nested children, under a specified parent node in a single transaction. Either every node is created or none is.",
+            tags = {"Node Management"}
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "HTTP Status CREATED: The child nodes were successfully added",
+                    content = @Content(
+                            schema = @Schema(implementation = BulkNodeResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found: ResourceNotFoundException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request: NodeAlreadyExistsException or InvalidRequestException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error: An unexpected error occurred",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/{parentName}/children/bulk", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    public ResponseEntity<BulkNodeResponse> addChildNodes(@PathVariable String parentName, @RequestBody List<ChildNodeTreeRequest> children) {
+        int created = nodeService.addChildren(parentName, children);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(new BulkNodeResponse(NodeManagementConstants.STATUS_201, NodeManagementConstants.MESSAGE_201_BULK, created));
+    }
+
+    @Operation(
+            summary = "Import a tree from a parent/child edge list",
+            description = "This API streams an edge list in the request body, either CSV (text/csv, lines of parentName,childName with an optional header) or NDJSON (application/x-ndjson, one {\"parentName\", \"childName\"} object per line). Every parent must exist already or appear as a child on an earlier line. Edges are written in batches of 10000, each in its own transaction.",
+            tags = {"Node Management"}
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "HTTP Status CREATED: The edge list was successfully imported",
+                    content = @Content(
+                            schema = @Schema(implementation = ImportResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found: ResourceNotFoundException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request: NodeAlreadyExistsException or InvalidRequestException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error: An unexpected error occurred while importing",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResponse> importTree(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        var response = treeImportService.importEdges(body, EdgeFormat.fromContentType(contentType));
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(response);
+    }
+
     @Operation(
             summary = "Delete a child node under a specified parent node",
             description = "This API allows you to delete a specified child node under the given parent node.",
@@ -145,7 +247,7 @@ public class NodeController {
 
     @Operation(
             summary = "Get all descendants of a node",
-            description = "This API retrieves a list of all descendant node names for a given node.",
+            description = "This API retrieves a list of all descendant node names for a given node. Use minDepth and maxDepth to restrict the levels returned; direct children are at depth 1.",
             tags = {"Node Management"}
     )
     @ApiResponses({
@@ -158,6 +260,13 @@ public class NodeController {
                             )
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request: InvalidRequestException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "HTTP Status Not Found: ResourceNotFoundException",
@@ -174,8 +283,194 @@ public class NodeController {
             )
     })
     @GetMapping(value = "/{nodeName}/descendants", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
-    public ResponseEntity<List<String>> getDescendants(@PathVariable String nodeName) {
-        List<String> responses = nodeService.getDescendants(nodeName);
+    public ResponseEntity<List<String>> getDescendants(@PathVariable String nodeName,
+                                                       @RequestParam(required = false) Integer minDepth,
+                                                       @RequestParam(required = false) Integer maxDepth) {
+        List<String> responses = nodeService.getDescendants(nodeName, minDepth, maxDepth);
+        return ResponseEntity.ok(responses);
+    }
+
+    @Operation(
+            summary = "Get the ancestors of a node",
+            description = "This API retrieves the path from the root of the tree to the parent of a given node, root first.",
+            tags = {"Node Management"}
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK: The ancestors of the node were successfully retrieved",
+                    content = @Content(
+                            array = @ArraySchema(
+                                    schema = @Schema(implementation = String.class)
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found: ResourceNotFoundException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error: An unexpected error occurred while retrieving ancestors",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/{nodeName}/ancestors", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    public ResponseEntity<List<String>> getAncestors(@PathVariable String nodeName) {
+        List<String> responses = nodeService.getAncestors(nodeName);
         return ResponseEntity.ok(responses);
     }
+
+    @Operation(
+            summary = "Get one page of the descendants of a node",
+            description = "This API retrieves the descendant node names of a given node page by page. Pass the returned nextCursor back to fetch the following page.",
+            tags = {"Node Management"}
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK: The page of descendants was successfully retrieved",
+                    content = @Content(
+                            schema = @Schema(implementation = DescendantPageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request: InvalidRequestException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found: ResourceNotFoundException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error: An unexpected error occurred while retrieving descendants",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/{nodeName}/descendants/page", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    public ResponseEntity<DescendantPageResponse> getDescendantsPage(@PathVariable String nodeName,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = NodeManagementConstants.DEFAULT_PAGE_LIMIT) int limit) {
+        return ResponseEntity.ok(nodeService.getDescendantsPage(nodeName, cursor, limit));
+    }
+
+    @Operation(
+            summary = "Stream all descendants of a node",
+            description = "This API streams the descendant node names of a given node as newline-delimited JSON, one JSON string per line, closest levels first.",
+            tags = {"Node Management"}
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK: The descendants of the node are being streamed"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found: ResourceNotFoundException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error: An unexpected error occurred while streaming descendants",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/{nodeName}/descendants/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDescendants(@PathVariable String nodeName) {
+        // Resolve the node up front so a missing node is reported before the response is committed.
+        nodeService.getNode(nodeName);
+        StreamingResponseBody body = outputStream -> {
+            var writer = new BufferedOutputStream(outputStream);
+            nodeService.streamDescendants(nodeName, name -> {
+                try {
+                    writer.write(objectMapper.writeValueAsBytes(name));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Export the subtree of a node as an edge list",
+            description = "This API streams every parent/child link below a given node, parents before children, as NDJSON (format=ndjson, the default) or CSV (format=csv). The output can be imported again with POST /api/nodes/import.",
+            tags = {"Node Management"}
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK: The subtree is being streamed"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request: InvalidRequestException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found: ResourceNotFoundException",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error: An unexpected error occurred while exporting the subtree",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/{nodeName}/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportSubtree(@PathVariable String nodeName,
+                                                               @RequestParam(defaultValue = "ndjson") String format) {
+        var edgeFormat = EdgeFormat.fromName(format);
+        // Resolve the node up front so a missing node is reported before the response is committed.
+        nodeService.getNode(nodeName);
+        StreamingResponseBody body = outputStream -> {
+            var writer = new BufferedOutputStream(outputStream);
+            if (edgeFormat == EdgeFormat.CSV) {
+                writer.write((EdgeFormat.CSV_HEADER + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            nodeService.exportSubtree(nodeName, edge -> {
+                try {
+                    writer.write(edgeFormat == EdgeFormat.CSV
+                            ? EdgeFormat.toCsvLine(edge).getBytes(StandardCharsets.UTF_8)
+                            : objectMapper.writeValueAsBytes(edge));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(edgeFormat.getMediaType())
+                .body(body);
+    }
 }
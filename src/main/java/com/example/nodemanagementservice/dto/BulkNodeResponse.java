@@ -0,0 +1,29 @@
+package com.example.nodemanagementservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Schema(
+        name = "BulkResponse",
+        description = "Schema to hold the outcome of a bulk node creation"
+)
+@Data @AllArgsConstructor
+public class BulkNodeResponse {
+
+    @Schema(
+            description = "Status code in the response"
+    )
+    private String statusCode;
+
+    @Schema(
+            description = "Status message in the response"
+    )
+    private String statusMsg;
+
+    @Schema(
+            description = "Number of nodes created"
+    )
+    private long nodesCreated;
+
+}
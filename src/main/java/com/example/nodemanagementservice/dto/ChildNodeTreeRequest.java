@@ -0,0 +1,30 @@
+package com.example.nodemanagementservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(name = "Child Node Tree",
+        description = "Schema to hold a child node and, recursively, its own children"
+)
+@Data
+@NoArgsConstructor
+@Builder
+@AllArgsConstructor
+public class ChildNodeTreeRequest {
+    @NotEmpty(message = "Name can not be a null or empty")
+    @Schema(
+            description = "Name of Child Node", example = "A"
+    )
+    private String childName;
+
+    @Schema(
+            description = "Children of this node, created under it in the same request"
+    )
+    private List<ChildNodeTreeRequest> children;
+}
@@ -0,0 +1,26 @@
+package com.example.nodemanagementservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Schema(
+        name = "DescendantPage",
+        description = "Schema to hold one page of descendant node names"
+)
+@Data @AllArgsConstructor
+public class DescendantPageResponse {
+
+    @Schema(
+            description = "Names of the descendant nodes in this page, closest levels first"
+    )
+    private List<String> descendants;
+
+    @Schema(
+            description = "Opaque cursor to pass back to fetch the next page, null when there are no more descendants"
+    )
+    private String nextCursor;
+
+}
@@ -0,0 +1,29 @@
+package com.example.nodemanagementservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Schema(
+        name = "ImportResponse",
+        description = "Schema to hold the outcome of a tree import"
+)
+@Data @AllArgsConstructor
+public class ImportResponse {
+
+    @Schema(
+            description = "Number of nodes created"
+    )
+    private long nodesImported;
+
+    @Schema(
+            description = "Time spent importing, in milliseconds"
+    )
+    private long elapsedMillis;
+
+    @Schema(
+            description = "Average import throughput, in nodes per second"
+    )
+    private long nodesPerSecond;
+
+}
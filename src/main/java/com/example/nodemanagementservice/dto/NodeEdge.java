@@ -0,0 +1,24 @@
+package com.example.nodemanagementservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "Node Edge",
+        description = "Schema to hold a direct parent/child link between two nodes"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeEdge {
+    @Schema(
+            description = "Name of Parent Node", example = "root"
+    )
+    private String parentName;
+
+    @Schema(
+            description = "Name of Child Node", example = "A"
+    )
+    private String childName;
+}
@@ -1,5 +1,6 @@
 package com.example.nodemanagementservice.entity;
 
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -17,8 +18,12 @@ import jakarta.persistence.*;
 @Builder
 public class Node {
 
+    // Ids are reserved in blocks from the id_generators table, so inserts can be batched
+    // instead of being executed one by one to read back an auto-increment key.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "node_id")
+    @TableGenerator(name = "node_id", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "nodes", allocationSize = NodeManagementConstants.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "node_relationships")
+@Table(name = "node_relationships", indexes = {
+        @Index(name = "idx_node_relationships_ancestor_depth", columnList = "ancestor_id, depth, descendant_id"),
+        @Index(name = "idx_node_relationships_descendant_depth", columnList = "descendant_id, depth, ancestor_id")
+})
+@IdClass(NodeRelationshipId.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -13,17 +17,15 @@ import lombok.*;
 public class NodeRelationship {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ancestor_id", nullable = false)
     private Node ancestor;
 
+    @Id
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "descendant_id", nullable = false)
     private Node descendant;
 
     @Column(nullable = false)
-    private int depth; // 0 for direct children, > 0 for indirect relationships
-}
\ No newline at end of file
+    private int depth; // 1 for direct children, > 1 for indirect relationships
+}
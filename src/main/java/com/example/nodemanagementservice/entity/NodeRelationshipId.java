@@ -0,0 +1,20 @@
+package com.example.nodemanagementservice.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Composite primary key of {@link NodeRelationship}: a closure row is identified by its (ancestor, descendant) pair.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class NodeRelationshipId implements Serializable {
+
+    private Long ancestor;
+
+    private Long descendant;
+}
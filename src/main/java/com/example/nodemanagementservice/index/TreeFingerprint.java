@@ -0,0 +1,34 @@
+package com.example.nodemanagementservice.index;
+
+/**
+ * Cheap summary of the tree up to a given node id, computed both from a snapshot and from the database
+ * to tell whether the snapshot still describes every node it contains.
+ *
+ * @param nodeCount number of nodes with an id up to {@code maxId}
+ * @param maxId largest node id covered
+ * @param linkCount number of direct parent links whose child id is up to {@code maxId}
+ * @param linkChecksum sum of {@link #linkChecksum(long, long)} over those links
+ */
+public record TreeFingerprint(long nodeCount, long maxId, long linkCount, long linkChecksum) {
+
+    /**
+     * Modulus of the per-link checksum; the repository queries computing it repeat this literal.
+     */
+    public static final long MODULUS = 1_000_000_007L;
+
+    /**
+     * Multiplier combining the child and parent ids into one key; the repository queries repeat this literal.
+     */
+    public static final long CHILD_FACTOR = 1_000_003L;
+
+    /**
+     * Checksum of one direct link: the cube of a key mixing both ids, modulo {@link #MODULUS}.
+     * Moving a child to another parent changes it, and since the function is not linear, moves of several children
+     * do not cancel out in the sum the way they would with a product of the ids. Every intermediate value stays
+     * below 2^63, so the SQL versions compute it with plain BIGINT arithmetic.
+     */
+    public static long linkChecksum(long childId, long parentId) {
+        long key = ((childId % MODULUS) * CHILD_FACTOR + parentId % MODULUS) % MODULUS;
+        return key * key % MODULUS * key % MODULUS;
+    }
+}
@@ -0,0 +1,723 @@
+package com.example.nodemanagementservice.index;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.DescendantRow;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.NodeProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-process mirror of the tree stored in {@code nodes} and {@code node_relationships}.
+ * Every node occupies a slot in a set of parallel primitive arrays (id, parent slot, children slots),
+ * so descendant, ancestor and existence lookups never touch the database.
+ * <p>
+ * The index is only consulted once {@link #isReady()} returns true, i.e. after a full load.
+ * Updates follow commits from after-commit callbacks, which concurrent transactions may run out of commit order.
+ * An update about a node that is not in the index yet therefore waits until the node is added, and the removal
+ * of a node not added yet makes its late addition a no-op. Any other update it cannot apply consistently turns
+ * the index off, callers fall back to the database, and the listener set with {@link #onOutOfSync} is told
+ * so it can rebuild the index.
+ * With the in-memory storage engine the index is the tree itself, persisted by its own log and snapshots.
+ */
+@Slf4j
+@Component
+public class TreeIndex {
+
+    static final int NO_PARENT = -1;
+    private static final int FREE = -2;
+    private static final int[] NO_CHILDREN = new int[0];
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Most updates kept waiting for their node before the index gives up and turns itself off.
+     */
+    private static final int MAX_WAITING = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids;
+    private int[] parents;
+    private String[] names;
+    private int[][] children;
+    private int[] childCounts;
+    private int highWater;
+    private long maxAssignedId;
+    private int[] freeSlots;
+    private int freeCount;
+    private LongIntHashMap slotsById;
+    private Map<String, Integer> slotsByName;
+    private Map<Long, List<Runnable>> waiting;
+    private int waitingCount;
+    // Ids removed before their addition arrived; node ids are never reused by the database.
+    private Set<Long> removedIds;
+    private volatile boolean ready;
+    private volatile Runnable outOfSyncListener = () -> { };
+
+    public TreeIndex() {
+        reset(INITIAL_CAPACITY);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Sets the action run when an update cannot be applied and the index turns itself off, e.g. a rebuild.
+     * It runs on the thread of the update, under the index lock, so it should only schedule the work.
+     */
+    public void onOutOfSync(Runnable listener) {
+        this.outOfSyncListener = listener;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByName.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the content of the index with the nodes and direct links provided.
+     * The node stream is fully consumed and closed before the link stream is opened.
+     *
+     * @param nodes supplier of every node row
+     * @param links supplier of every direct parent/child link
+     */
+    public void rebuild(Supplier<Stream<NodeProjection>> nodes, Supplier<Stream<NodeLinkProjection>> links) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            reset(INITIAL_CAPACITY);
+            load(nodes, links);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the nodes and direct links created since a snapshot restored with {@link #restoreSnapshot(Path)}
+     * and turns the index on.
+     *
+     * @param nodes supplier of the node rows newer than the snapshot
+     * @param links supplier of the direct links of those nodes
+     */
+    public void replay(Supplier<Stream<NodeProjection>> nodes, Supplier<Stream<NodeLinkProjection>> links) {
+        lock.writeLock().lock();
+        try {
+            load(nodes, links);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the content of the index to a snapshot file. Does nothing while the index is not ready.
+     *
+     * @param file the snapshot file, replaced atomically
+     * @return the fingerprint of the snapshot written, or empty if the index is not ready
+     */
+    public Optional<TreeFingerprint> writeSnapshot(Path file) throws IOException {
+        Optional<TreeSnapshot> snapshot = captureSnapshot();
+        if (snapshot.isPresent()) {
+            snapshot.get().writeTo(file);
+        }
+        return snapshot.map(TreeSnapshot::fingerprint);
+    }
+
+    /**
+     * Copies the content of the index under the read lock, so it can be written to a file without blocking updates.
+     *
+     * @return the copied content, or empty if the index is not ready
+     */
+    public Optional<TreeSnapshot> captureSnapshot() {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            int count = slotsByName.size();
+            long[] snapshotIds = new long[count];
+            long[] parentIds = new long[count];
+            String[] snapshotNames = new String[count];
+            long maxId = 0;
+            long linkCount = 0;
+            long linkChecksum = 0;
+            int n = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                if (parents[slot] == FREE) {
+                    continue;
+                }
+                snapshotIds[n] = ids[slot];
+                snapshotNames[n] = names[slot];
+                maxId = Math.max(maxId, ids[slot]);
+                if (parents[slot] != NO_PARENT) {
+                    parentIds[n] = ids[parents[slot]];
+                    linkCount++;
+                    linkChecksum += TreeFingerprint.linkChecksum(ids[slot], parentIds[n]);
+                }
+                n++;
+            }
+            return Optional.of(new TreeSnapshot(new TreeSnapshotFile.Content(
+                    new TreeFingerprint(count, maxId, linkCount, linkChecksum), maxAssignedId,
+                    snapshotIds, parentIds, snapshotNames)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the content of the index with a snapshot file. The index stays off until {@link #replay} is called,
+     * so the caller can first check the fingerprint against the database.
+     *
+     * @param file the snapshot file
+     * @return the fingerprint stored in the snapshot
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public TreeFingerprint restoreSnapshot(Path file) throws IOException {
+        TreeSnapshotFile.Content content = TreeSnapshotFile.read(file);
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            reset(Math.max(INITIAL_CAPACITY, content.ids().length));
+            for (int i = 0; i < content.ids().length; i++) {
+                allocate(content.ids()[i], content.names()[i]);
+            }
+            for (int i = 0; i < content.ids().length; i++) {
+                if (content.parentIds()[i] != 0) {
+                    attach(slotOf(content.ids()[i]), slotOf(content.parentIds()[i]));
+                }
+            }
+            maxAssignedId = Math.max(maxAssignedId, content.maxAssignedId());
+            return content.fingerprint();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Turns the index off; reads fall back to the database until the next {@link #rebuild}.
+     */
+    public void invalidate() {
+        ready = false;
+    }
+
+    /**
+     * Removes every node and turns the index on, empty.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset(INITIAL_CAPACITY);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the id of the node with the given name, or empty if the node is unknown
+     */
+    public OptionalLong idOf(String name) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotsByName.get(name);
+            return slot == null ? OptionalLong.empty() : OptionalLong.of(ids[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the id of the direct parent of a node, or empty for a root or an unknown node
+     */
+    public OptionalLong parentIdOf(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotsById.get(id, NO_PARENT);
+            if (slot == NO_PARENT || parents[slot] == NO_PARENT) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(ids[parents[slot]]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if {@code candidateId} is a strict descendant of {@code ancestorId}
+     */
+    public boolean isDescendant(long ancestorId, long candidateId) {
+        lock.readLock().lock();
+        try {
+            int ancestor = slotsById.get(ancestorId, NO_PARENT);
+            int slot = slotsById.get(candidateId, NO_PARENT);
+            if (ancestor == NO_PARENT || slot == NO_PARENT) {
+                return false;
+            }
+            for (int parent = parents[slot]; parent != NO_PARENT; parent = parents[parent]) {
+                if (parent == ancestor) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the largest node id added since the index was last cleared or rebuilt, including nodes removed since,
+     * or 0; snapshots carry it over so that the ids of removed nodes are not handed out again
+     */
+    public long maxAssignedId() {
+        lock.readLock().lock();
+        try {
+            return maxAssignedId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String name) {
+        lock.readLock().lock();
+        try {
+            return slotsByName.containsKey(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registers a new root node.
+     */
+    public void addRoot(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            if (slotsById.get(id, NO_PARENT) != NO_PARENT || slotsByName.containsKey(name)) {
+                log.warn("Tree index out of sync while adding root {}, disabling it", id);
+                disable();
+                return;
+            }
+            allocate(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registers a new node under its parent. If the parent is not in the index yet, the node is added with it.
+     */
+    public void addNode(long id, String name, long parentId) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            if (removedIds.contains(id) || removedIds.contains(parentId)) {
+                // Deleted, itself or with its parent, before this addition arrived.
+                removedIds.add(id);
+                dropWaiting(id);
+                return;
+            }
+            int existing = slotsById.get(id, NO_PARENT);
+            if (existing != NO_PARENT && names[existing].equals(name)) {
+                // Already read by a rebuild that ran after the commit.
+                return;
+            }
+            if (existing != NO_PARENT || slotsByName.containsKey(name)) {
+                log.warn("Tree index out of sync while adding node {} under {}, disabling it", id, parentId);
+                disable();
+                return;
+            }
+            int parentSlot = slotsById.get(parentId, NO_PARENT);
+            if (parentSlot == NO_PARENT) {
+                await(parentId, () -> addNode(id, name, parentId));
+                return;
+            }
+            attach(allocate(id, name), parentSlot);
+            runWaiting(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a node and all of its descendants.
+     *
+     * @return the number of nodes removed
+     */
+    public int removeSubtree(long id) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return 0;
+            }
+            int root = slotsById.get(id, NO_PARENT);
+            if (root == NO_PARENT) {
+                // Its addition has not arrived yet, or a rebuild already left it out.
+                removedIds.add(id);
+                dropWaiting(id);
+                return 0;
+            }
+            int removed = 0;
+            detach(root);
+            int[] stack = new int[16];
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int slot = stack[--top];
+                for (int i = 0; i < childCounts[slot]; i++) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top << 1);
+                    }
+                    stack[top++] = children[slot][i];
+                }
+                release(slot);
+                removed++;
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a node, with its subtree, under a new parent. If either node is not in the index yet,
+     * the move is applied once it is added.
+     */
+    public void move(long id, long newParentId) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            int slot = slotsById.get(id, NO_PARENT);
+            int newParent = slotsById.get(newParentId, NO_PARENT);
+            if (slot == NO_PARENT || newParent == NO_PARENT) {
+                await(slot == NO_PARENT ? id : newParentId, () -> move(id, newParentId));
+                return;
+            }
+            for (int ancestor = newParent; ancestor != NO_PARENT; ancestor = parents[ancestor]) {
+                if (ancestor == slot) {
+                    // Moves applied in another order than they committed would create a cycle.
+                    log.warn("Tree index out of sync while moving node {} under {}, disabling it", id, newParentId);
+                    disable();
+                    return;
+                }
+            }
+            detach(slot);
+            attach(slot, newParent);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the names of the descendants of a node between two depths, closest levels first
+     * and by id within a level, which is the order used by the database queries.
+     *
+     * @return the descendant names, or empty if the node is unknown
+     */
+    public Optional<List<String>> descendants(String name, int minDepth, int maxDepth) {
+        lock.readLock().lock();
+        try {
+            Integer start = slotsByName.get(name);
+            if (start == null) {
+                return Optional.empty();
+            }
+            List<String> result = new ArrayList<>();
+            walk(start, maxDepth, (depth, slot) -> {
+                if (depth >= minDepth) {
+                    result.add(names[slot]);
+                }
+                return true;
+            });
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} descendants of a node positioned strictly after ({@code depth}, {@code id})
+     * in the order of {@link #descendants}. The levels above the position are only expanded again; the level of the
+     * position is visited from the first id after it, found by binary search.
+     *
+     * @return the descendants, or empty if the node is unknown
+     */
+    public Optional<List<DescendantProjection>> descendantsAfter(String name, int depth, long id, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer start = slotsByName.get(name);
+            if (start == null) {
+                return Optional.empty();
+            }
+            List<DescendantProjection> result = new ArrayList<>();
+            walk(start, Integer.MAX_VALUE, depth, id, (level, slot) -> {
+                result.add(new DescendantRow(ids[slot], names[slot], level));
+                return result.size() < limit;
+            });
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the direct links below a node in the order of {@link #descendants}, so every parent comes
+     * before its children.
+     *
+     * @return the links, or empty if the node is unknown
+     */
+    public Optional<List<NodeEdge>> subtreeEdges(String name) {
+        lock.readLock().lock();
+        try {
+            Integer start = slotsByName.get(name);
+            if (start == null) {
+                return Optional.empty();
+            }
+            List<NodeEdge> result = new ArrayList<>();
+            walk(start, Integer.MAX_VALUE, (depth, slot) -> {
+                result.add(new NodeEdge(names[parents[slot]], names[slot]));
+                return true;
+            });
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the names of the ancestors of a node, root first.
+     *
+     * @return the ancestor names, or empty if the node is unknown
+     */
+    public Optional<List<String>> ancestors(String name) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotsByName.get(name);
+            if (slot == null) {
+                return Optional.empty();
+            }
+            List<String> result = new ArrayList<>();
+            for (int parent = parents[slot]; parent != NO_PARENT; parent = parents[parent]) {
+                result.add(names[parent]);
+            }
+            Collections.reverse(result);
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits the descendants of a slot level by level, by id within a level, until the visitor returns false.
+     * Must be called under the read lock.
+     */
+    private void walk(int start, int maxDepth, SlotVisitor visitor) {
+        walk(start, maxDepth, 0, 0L, visitor);
+    }
+
+    /**
+     * Like {@link #walk(int, int, SlotVisitor)}, but visits only the descendants positioned strictly after
+     * ({@code fromDepth}, {@code afterId}): the levels above are expanded without being visited.
+     */
+    private void walk(int start, int maxDepth, int fromDepth, long afterId, SlotVisitor visitor) {
+        int[] level = {start};
+        int levelSize = 1;
+        for (int depth = 1; depth <= maxDepth && levelSize > 0; depth++) {
+            long[] nextIds = new long[16];
+            int nextSize = 0;
+            for (int i = 0; i < levelSize; i++) {
+                int slot = level[i];
+                for (int c = 0; c < childCounts[slot]; c++) {
+                    if (nextSize == nextIds.length) {
+                        nextIds = Arrays.copyOf(nextIds, nextSize << 1);
+                    }
+                    nextIds[nextSize++] = ids[children[slot][c]];
+                }
+            }
+            Arrays.sort(nextIds, 0, nextSize);
+            int first = 0;
+            if (depth < fromDepth) {
+                first = nextSize;
+            } else if (depth == fromDepth) {
+                int found = Arrays.binarySearch(nextIds, 0, nextSize, afterId);
+                first = found >= 0 ? found + 1 : -found - 1;
+            }
+            level = new int[nextSize];
+            for (int i = 0; i < nextSize; i++) {
+                level[i] = slotsById.get(nextIds[i], NO_PARENT);
+                if (i >= first && !visitor.visit(depth, level[i])) {
+                    return;
+                }
+            }
+            levelSize = nextSize;
+        }
+    }
+
+    private void disable() {
+        ready = false;
+        outOfSyncListener.run();
+    }
+
+    /**
+     * Keeps an update until the node with the given id is added. Must be called under the write lock.
+     */
+    private void await(long id, Runnable update) {
+        if (waitingCount >= MAX_WAITING) {
+            log.warn("Tree index has {} updates waiting for their nodes, disabling it", waitingCount);
+            disable();
+            return;
+        }
+        waiting.computeIfAbsent(id, key -> new ArrayList<>()).add(update);
+        waitingCount++;
+    }
+
+    private void runWaiting(long id) {
+        List<Runnable> updates = waiting.remove(id);
+        if (updates != null) {
+            waitingCount -= updates.size();
+            updates.forEach(Runnable::run);
+        }
+    }
+
+    private void dropWaiting(long id) {
+        List<Runnable> updates = waiting.remove(id);
+        if (updates != null) {
+            waitingCount -= updates.size();
+        }
+    }
+
+    private void load(Supplier<Stream<NodeProjection>> nodes, Supplier<Stream<NodeLinkProjection>> links) {
+        try (Stream<NodeProjection> rows = nodes.get()) {
+            rows.forEach(row -> allocate(row.getId(), row.getName()));
+        }
+        try (Stream<NodeLinkProjection> rows = links.get()) {
+            rows.forEach(row -> attach(slotOf(row.getChildId()), slotOf(row.getParentId())));
+        }
+    }
+
+    private void reset(int capacity) {
+        ids = new long[capacity];
+        parents = new int[capacity];
+        names = new String[capacity];
+        children = new int[capacity][];
+        childCounts = new int[capacity];
+        highWater = 0;
+        maxAssignedId = 0;
+        freeSlots = new int[16];
+        freeCount = 0;
+        slotsById = new LongIntHashMap(capacity);
+        slotsByName = new HashMap<>(capacity * 2);
+        waiting = new HashMap<>();
+        waitingCount = 0;
+        removedIds = new HashSet<>();
+    }
+
+    private int slotOf(long id) {
+        int slot = slotsById.get(id, NO_PARENT);
+        if (slot == NO_PARENT) {
+            throw new IllegalStateException("Link references unknown node " + id);
+        }
+        return slot;
+    }
+
+    private int allocate(long id, String name) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == ids.length) {
+                grow(ids.length << 1);
+            }
+            slot = highWater++;
+        }
+        ids[slot] = id;
+        names[slot] = name;
+        parents[slot] = NO_PARENT;
+        children[slot] = NO_CHILDREN;
+        childCounts[slot] = 0;
+        slotsById.put(id, slot);
+        slotsByName.put(name, slot);
+        maxAssignedId = Math.max(maxAssignedId, id);
+        return slot;
+    }
+
+    private void release(int slot) {
+        slotsById.remove(ids[slot]);
+        slotsByName.remove(names[slot]);
+        names[slot] = null;
+        children[slot] = null;
+        childCounts[slot] = 0;
+        parents[slot] = FREE;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void attach(int slot, int parent) {
+        parents[slot] = parent;
+        int count = childCounts[parent];
+        if (count == children[parent].length) {
+            children[parent] = Arrays.copyOf(children[parent], Math.max(4, count << 1));
+        }
+        children[parent][count] = slot;
+        childCounts[parent] = count + 1;
+    }
+
+    private void detach(int slot) {
+        int parent = parents[slot];
+        if (parent == NO_PARENT) {
+            return;
+        }
+        int[] siblings = children[parent];
+        int count = childCounts[parent];
+        for (int i = 0; i < count; i++) {
+            if (siblings[i] == slot) {
+                System.arraycopy(siblings, i + 1, siblings, i, count - i - 1);
+                childCounts[parent] = count - 1;
+                break;
+            }
+        }
+        parents[slot] = NO_PARENT;
+    }
+
+    @FunctionalInterface
+    private interface SlotVisitor {
+        boolean visit(int depth, int slot);
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        names = Arrays.copyOf(names, capacity);
+        children = Arrays.copyOf(children, capacity);
+        childCounts = Arrays.copyOf(childCounts, capacity);
+    }
+}
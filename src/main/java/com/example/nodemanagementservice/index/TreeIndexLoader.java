@@ -0,0 +1,183 @@
+package com.example.nodemanagementservice.index;
+
+import com.example.nodemanagementservice.repository.NodeRepository;
+import com.example.nodemanagementservice.storage.TreeStorageEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the {@link TreeIndex} from the database when the application starts.
+ * Runs as a lifecycle bean so the index is complete before the web server starts accepting requests.
+ * <p>
+ * When a snapshot file is configured, the index is restored from it and only the nodes created since are read
+ * from the database, provided the database still agrees with the snapshot on every node it contains.
+ * The snapshot is refreshed after a full load and when the application stops.
+ * When an update cannot be applied and the index turns itself off, it is loaded again in the background.
+ * Not used by the in-memory storage engine, whose index is loaded by its own store.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${node-management.tree-index.enabled:false}"
+        + " and '${node-management.storage.engine:closure-table}' != 'in-memory'")
+public class TreeIndexLoader implements SmartLifecycle {
+
+    private final TreeIndex treeIndex;
+    private final NodeRepository nodeRepository;
+    private final TreeStorageEngine storageEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshotFile;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "tree-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile boolean running;
+
+    public TreeIndexLoader(TreeIndex treeIndex, NodeRepository nodeRepository,
+                           TreeStorageEngine storageEngine, PlatformTransactionManager transactionManager,
+                           @Value("${node-management.tree-index.snapshot-file:}") String snapshotFile) {
+        this.treeIndex = treeIndex;
+        this.nodeRepository = nodeRepository;
+        this.storageEngine = storageEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+        treeIndex.onOutOfSync(this::scheduleRebuild);
+    }
+
+    @Override
+    public void start() {
+        long started = System.nanoTime();
+        try {
+            if (!restoreFromSnapshot()) {
+                log.info("Loading tree index from the database");
+                rebuild();
+            }
+            log.info("Loaded {} nodes into the tree index in {} ms",
+                    treeIndex.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.error("Could not load the tree index, reads will go to the database", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        rebuilder.shutdownNow();
+        writeSnapshot();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server and stops after it, so no request is served from a partial index
+     * and the snapshot taken on stop includes every completed request.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Restores the index from the snapshot and replays the nodes created since.
+     *
+     * @return true if the index was restored, false if a full load is needed
+     */
+    private boolean restoreFromSnapshot() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return false;
+        }
+        TreeFingerprint snapshot;
+        try {
+            snapshot = treeIndex.restoreSnapshot(snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read tree index snapshot {}, loading from the database", snapshotFile, e);
+            return false;
+        }
+        Boolean restored;
+        try {
+            restored = transactionTemplate.execute(status -> {
+                // Deleted or moved nodes change the count or the checksum of the links the snapshot covers.
+                long maxId = snapshot.maxId();
+                var links = storageEngine.summarizeParentLinks(maxId);
+                var current = new TreeFingerprint(nodeRepository.countByIdLessThanEqual(maxId), maxId,
+                        links.getLinkCount(), links.getLinkChecksum());
+                if (!current.equals(snapshot)) {
+                    log.info("Tree index snapshot is stale ({} in the database, {} in the snapshot)", current, snapshot);
+                    return false;
+                }
+                treeIndex.replay(() -> nodeRepository.streamNodesAfter(maxId),
+                        () -> storageEngine.streamParentLinksAfter(maxId));
+                return true;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not replay changes since tree index snapshot {}, loading from the database", snapshotFile, e);
+            return false;
+        }
+        if (Boolean.TRUE.equals(restored)) {
+            log.info("Restored tree index from snapshot {} with {} nodes and replayed {} newer nodes",
+                    snapshotFile, snapshot.nodeCount(), treeIndex.size() - snapshot.nodeCount());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads the index again on the rebuild thread. Updates committed meanwhile wait for the index lock
+     * and are applied on top of the loaded tree, where the ones it already contains are no-ops.
+     */
+    private void scheduleRebuild() {
+        if (!running || !rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        rebuilder.execute(() -> {
+            rebuildScheduled.set(false);
+            long started = System.nanoTime();
+            try {
+                rebuild();
+                log.info("Rebuilt the tree index with {} nodes in {} ms",
+                        treeIndex.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } catch (RuntimeException e) {
+                log.error("Could not rebuild the tree index, reads will go to the database", e);
+            }
+        });
+    }
+
+    private void rebuild() {
+        transactionTemplate.executeWithoutResult(status ->
+                treeIndex.rebuild(nodeRepository::streamAllNodes, storageEngine::streamParentLinks));
+        writeSnapshot();
+    }
+
+    private void writeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            treeIndex.writeSnapshot(snapshotFile).ifPresent(fingerprint ->
+                    log.info("Wrote tree index snapshot {} with {} nodes in {} ms", snapshotFile, fingerprint.nodeCount(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+        } catch (IOException e) {
+            log.warn("Could not write tree index snapshot {}", snapshotFile, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.nodemanagementservice.index;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Content of a {@link TreeIndex} copied at one point in time, ready to be written to a snapshot file.
+ */
+public final class TreeSnapshot {
+
+    private final TreeSnapshotFile.Content content;
+
+    TreeSnapshot(TreeSnapshotFile.Content content) {
+        this.content = content;
+    }
+
+    public TreeFingerprint fingerprint() {
+        return content.fingerprint();
+    }
+
+    /**
+     * Writes the snapshot next to the target file and atomically renames it into place.
+     */
+    public void writeTo(Path file) throws IOException {
+        TreeSnapshotFile.write(file, content);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.nodemanagementservice.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of a {@link TreeIndex}, written and read through memory-mapped files.
+ * <p>
+ * Layout (big-endian): magic, version, node count, max id, link count, link checksum, max assigned id,
+ * name bytes, then the ids, the parent ids (0 for roots), the UTF-8 length of every name, the names themselves,
+ * and finally the CRC32 of everything before it.
+ */
+final class TreeSnapshotFile {
+
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8 + 8 + 8 + 8;
+
+    /**
+     * @param maxAssignedId the largest id the index ever held, including nodes removed since, so ids are not reused
+     */
+    record Content(TreeFingerprint fingerprint, long maxAssignedId, long[] ids, long[] parentIds, String[] names) {
+    }
+
+    private TreeSnapshotFile() {
+        // restrict instantiation
+    }
+
+    /**
+     * Writes a snapshot next to the target file and atomically renames it into place.
+     */
+    static void write(Path file, Content content) throws IOException {
+        int count = content.ids().length;
+        byte[][] encoded = new byte[count][];
+        long nameBytes = 0;
+        for (int i = 0; i < count; i++) {
+            encoded[i] = content.names()[i].getBytes(StandardCharsets.UTF_8);
+            nameBytes += encoded[i].length;
+        }
+        long size = HEADER_BYTES + 20L * count + nameBytes + 8;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Tree snapshot of " + size + " bytes exceeds the 2 GB mapping limit");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            TreeFingerprint fingerprint = content.fingerprint();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count)
+                    .putLong(fingerprint.maxId()).putLong(fingerprint.linkCount()).putLong(fingerprint.linkChecksum())
+                    .putLong(content.maxAssignedId()).putLong(nameBytes);
+            for (long id : content.ids()) {
+                buffer.putLong(id);
+            }
+            for (long parentId : content.parentIds()) {
+                buffer.putLong(parentId);
+            }
+            for (byte[] name : encoded) {
+                buffer.putInt(name.length);
+            }
+            for (byte[] name : encoded) {
+                buffer.put(name);
+            }
+            buffer.putLong(checksum(buffer, (int) size - 8));
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps and decodes a snapshot.
+     *
+     * @throws IOException if the file cannot be read, has an unknown format or fails its checksum
+     */
+    static Content read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Tree snapshot " + file + " has an invalid size of " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getLong((int) size - 8) != checksum(buffer, (int) size - 8)) {
+                throw new IOException("Tree snapshot " + file + " is corrupt");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Tree snapshot " + file + " has an unknown format");
+            }
+            int count = buffer.getInt();
+            long maxId = buffer.getLong();
+            long linkCount = buffer.getLong();
+            long linkChecksum = buffer.getLong();
+            long maxAssignedId = buffer.getLong();
+            long nameBytes = buffer.getLong();
+            if (HEADER_BYTES + 20L * count + nameBytes + 8 != size) {
+                throw new IOException("Tree snapshot " + file + " has an inconsistent header");
+            }
+
+            long[] ids = new long[count];
+            long[] parentIds = new long[count];
+            int[] lengths = new int[count];
+            buffer.asLongBuffer().get(ids);
+            buffer.position(buffer.position() + 8 * count);
+            buffer.asLongBuffer().get(parentIds);
+            buffer.position(buffer.position() + 8 * count);
+            buffer.asIntBuffer().get(lengths);
+            buffer.position(buffer.position() + 4 * count);
+
+            String[] names = new String[count];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                if (lengths[i] > scratch.length) {
+                    scratch = new byte[lengths[i]];
+                }
+                buffer.get(scratch, 0, lengths[i]);
+                names[i] = new String(scratch, 0, lengths[i], StandardCharsets.UTF_8);
+            }
+            return new Content(new TreeFingerprint(count, maxId, linkCount, linkChecksum), maxAssignedId,
+                    ids, parentIds, names);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        var crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.nodemanagementservice.memory;
+
+import com.example.nodemanagementservice.index.TreeIndex;
+import com.example.nodemanagementservice.index.TreeSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Durable home of the tree when the {@code in-memory} storage engine is selected. The {@link TreeIndex} holds the
+ * whole tree; every change is appended to a write-ahead log before the write returns, and the log is periodically
+ * folded into a snapshot of the index.
+ * <p>
+ * The data directory holds {@code snapshot-<n>.bin}, the tree as it was before segment {@code n}, and the log
+ * segments {@code wal-<n>.log}. On start the newest readable snapshot is restored and the segments from its number
+ * on are replayed; a record torn by a crash at the end of the last segment is cut off.
+ * <p>
+ * Writes run one at a time under a single lock, which makes validation, logging and applying a change atomic.
+ * The lock is released before waiting for the log to reach the disk, so a reader may see a change a few
+ * milliseconds before its writer gets a response, and concurrent writers share one fsync.
+ * <p>
+ * Changes are applied in memory before they are durable and cannot be undone, so the first failure to write the log
+ * makes the store read-only until it is restarted: later writes are rejected and no snapshot is taken, and a restart
+ * recovers the tree as of the last durable record.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "node-management.storage.engine", havingValue = "in-memory")
+public class InMemoryTreeStore implements SmartLifecycle {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final TreeIndex treeIndex;
+    private final Path dataDir;
+    private final boolean syncWrites;
+    private final long snapshotEvery;
+    private final String rootName;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService checkpointExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tree-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private WriteAheadLog wal;
+    private long segment;
+    private long recordsInSegment;
+    private long nextId;
+    private boolean checkpointScheduled;
+    private volatile IOException failure;
+    private volatile boolean running;
+
+    public InMemoryTreeStore(TreeIndex treeIndex,
+                             @Value("${node-management.memory.data-dir:data}") String dataDir,
+                             @Value("${node-management.memory.sync-writes:true}") boolean syncWrites,
+                             @Value("${node-management.memory.snapshot-every:1000000}") long snapshotEvery,
+                             @Value("${node-management.memory.root-name:root}") String rootName) {
+        this.treeIndex = treeIndex;
+        this.dataDir = Path.of(dataDir);
+        this.syncWrites = syncWrites;
+        this.snapshotEvery = snapshotEvery;
+        this.rootName = rootName;
+    }
+
+    /**
+     * Runs a change under the write lock, then waits until every record it appended is durable.
+     * The change validates its input against the {@link TreeIndex} and applies itself through
+     * {@link #add}, {@link #remove} and {@link #move}.
+     *
+     * @param change the change to run
+     * @return the result of the change
+     * @throws UncheckedIOException if the log could not be written, now or by an earlier write
+     */
+    public <T> T write(Supplier<T> change) {
+        T result;
+        WriteAheadLog segmentLog;
+        long sequence;
+        writeLock.lock();
+        try {
+            checkWritable();
+            result = change.get();
+            segmentLog = wal;
+            sequence = wal.lastSequence();
+            scheduleCheckpointIfDue();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            segmentLog.awaitDurable(sequence);
+        } catch (IOException e) {
+            fail(e);
+            throw new UncheckedIOException("Could not write the write-ahead log", e);
+        }
+        return result;
+    }
+
+    /**
+     * Logs and applies the creation of a node. Must be called from a {@link #write} change.
+     *
+     * @param name the name of the new node
+     * @param parentId the id of its parent, or 0 for a root
+     * @return the id assigned to the node
+     */
+    public long add(String name, long parentId) {
+        checkWriteLock();
+        long id = nextId++;
+        wal.appendAdd(id, name, parentId);
+        recordsInSegment++;
+        if (parentId == 0) {
+            treeIndex.addRoot(id, name);
+        } else {
+            treeIndex.addNode(id, name, parentId);
+        }
+        return id;
+    }
+
+    /**
+     * Logs and applies the removal of a node and its subtree. Must be called from a {@link #write} change.
+     *
+     * @return the number of nodes removed
+     */
+    public int remove(long id) {
+        checkWriteLock();
+        wal.appendRemove(id);
+        recordsInSegment++;
+        return treeIndex.removeSubtree(id);
+    }
+
+    /**
+     * Logs and applies the move of a node under a new parent. Must be called from a {@link #write} change.
+     */
+    public void move(long id, long newParentId) {
+        checkWriteLock();
+        wal.appendMove(id, newParentId);
+        recordsInSegment++;
+        treeIndex.move(id, newParentId);
+    }
+
+    /**
+     * Creates a root node unless a node with that name exists.
+     *
+     * @return the id of the root
+     */
+    public long addRoot(String name) {
+        return write(() -> {
+            var existing = treeIndex.idOf(name);
+            return existing.isPresent() ? existing.getAsLong() : add(name, 0);
+        });
+    }
+
+    /**
+     * Removes every node, in memory and on disk, and starts a new log. Intended for tests and resets.
+     */
+    public void clear() {
+        writeLock.lock();
+        try {
+            wal.close();
+            deleteFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, Long.MAX_VALUE);
+            deleteFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX, Long.MAX_VALUE);
+            treeIndex.clear();
+            failure = null;
+            segment = 1;
+            recordsInSegment = 0;
+            nextId = 1;
+            wal = WriteAheadLog.open(segmentFile(segment), syncWrites);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clear " + dataDir, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(dataDir);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the tree from " + dataDir, e);
+        }
+        if (!rootName.isBlank()) {
+            addRoot(rootName);
+        }
+        log.info("Recovered {} nodes from {} in {} ms",
+                treeIndex.size(), dataDir, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        checkpointExecutor.shutdown();
+        try {
+            checkpointExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            if (failure == null) {
+                checkpoint();
+            }
+            wal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close the write-ahead log cleanly", e);
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server and stops after it, like the tree index loader.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Writes a snapshot and drops the snapshots and log segments it replaces.
+     * Writes are only blocked while the current segment is flushed, the index is copied and a new segment is opened.
+     * The segment is flushed before the new one is opened, so a record never reaches the disk after a lost one.
+     */
+    void checkpoint() throws IOException {
+        TreeSnapshot snapshot;
+        WriteAheadLog previous;
+        long base;
+        writeLock.lock();
+        try {
+            checkpointScheduled = false;
+            if (recordsInSegment == 0 || failure != null) {
+                return;
+            }
+            try {
+                wal.awaitDurable(wal.lastSequence());
+            } catch (IOException e) {
+                fail(e);
+                throw e;
+            }
+            snapshot = treeIndex.captureSnapshot()
+                    .orElseThrow(() -> new IllegalStateException("Tree index is out of sync with the write-ahead log"));
+            previous = wal;
+            base = segment + 1;
+            wal = WriteAheadLog.open(segmentFile(base), syncWrites);
+            segment = base;
+            recordsInSegment = 0;
+        } finally {
+            writeLock.unlock();
+        }
+        previous.close();
+        snapshot.writeTo(snapshotFile(base));
+        deleteFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, base);
+        deleteFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX, base);
+        log.info("Wrote snapshot {} with {} nodes", base, snapshot.fingerprint().nodeCount());
+    }
+
+    private void scheduleCheckpointIfDue() {
+        if (recordsInSegment >= snapshotEvery && !checkpointScheduled && running) {
+            checkpointScheduled = true;
+            checkpointExecutor.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not write a snapshot, the write-ahead log keeps growing", e);
+                }
+            });
+        }
+    }
+
+    private void recover() throws IOException {
+        long base = 0;
+        List<Long> snapshots = fileNumbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0 && base == 0; i--) {
+            long candidate = snapshots.get(i);
+            try {
+                treeIndex.restoreSnapshot(snapshotFile(candidate));
+                // A restored snapshot leaves the index off until a replay; there is nothing to replay from the database.
+                treeIndex.replay(Stream::empty, Stream::empty);
+                base = candidate;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not restore snapshot {}, trying an older one", candidate, e);
+            }
+        }
+        if (base == 0) {
+            treeIndex.clear();
+        }
+
+        long from = base;
+        List<Long> segments = fileNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX).stream()
+                .filter(number -> number >= from)
+                .toList();
+        long[] records = new long[1];
+        WriteAheadLog.Handler handler = new WriteAheadLog.Handler() {
+            @Override
+            public void add(long id, String name, long parentId) {
+                if (parentId == 0) {
+                    treeIndex.addRoot(id, name);
+                } else {
+                    treeIndex.addNode(id, name, parentId);
+                }
+                records[0]++;
+            }
+
+            @Override
+            public void remove(long id) {
+                treeIndex.removeSubtree(id);
+                records[0]++;
+            }
+
+            @Override
+            public void move(long id, long newParentId) {
+                treeIndex.move(id, newParentId);
+                records[0]++;
+            }
+        };
+        for (int i = 0; i < segments.size(); i++) {
+            Path file = segmentFile(segments.get(i));
+            records[0] = 0;
+            long valid = WriteAheadLog.read(file, handler);
+            if (valid < Files.size(file)) {
+                if (i < segments.size() - 1) {
+                    throw new IOException("Write-ahead log segment " + file + " is corrupt before its end");
+                }
+                log.warn("Truncating torn record at offset {} of {}", valid, file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        if (!treeIndex.isReady()) {
+            throw new IOException("Write-ahead log in " + dataDir + " does not match its snapshot");
+        }
+
+        segment = segments.isEmpty() ? Math.max(base, 1) : segments.get(segments.size() - 1);
+        recordsInSegment = segments.isEmpty() ? 0 : records[0];
+        // Skips the ids of removed nodes too: snapshots keep the largest id seen and replayed add records raise it.
+        nextId = treeIndex.maxAssignedId() + 1;
+        wal = WriteAheadLog.open(segmentFile(segment), syncWrites);
+    }
+
+    private List<Long> fileNumbers(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dataDir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> name.substring(prefix.length(), name.length() - suffix.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::valueOf)
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+
+    private void deleteFiles(String prefix, String suffix, long below) throws IOException {
+        for (long number : fileNumbers(prefix, suffix)) {
+            if (number < below) {
+                Files.deleteIfExists(dataDir.resolve(prefix + number + suffix));
+            }
+        }
+    }
+
+    private Path snapshotFile(long number) {
+        return dataDir.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX);
+    }
+
+    private Path segmentFile(long number) {
+        return dataDir.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("The write-ahead log failed, writes are rejected until restart", failure);
+        }
+    }
+
+    private void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+            log.error("Write-ahead log failed, rejecting writes until restart", e);
+        }
+    }
+
+    private void checkWriteLock() {
+        if (!writeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Tree changes must run inside InMemoryTreeStore.write");
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.nodemanagementservice.memory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log segment recording every change made to the in-memory tree.
+ * <p>
+ * Each record is framed as its payload length, the CRC32 of the payload and the payload itself:
+ * the record type, the node id, the parent id (0 when there is none) and, for additions, the UTF-8 name.
+ * Appending only copies the record into a buffer; {@link #awaitDurable} writes and forces it.
+ * The first writer to wait becomes the leader and flushes everything appended so far with one write and one fsync,
+ * while later writers wait for it, so concurrent writes share the cost of a sync.
+ */
+final class WriteAheadLog implements Closeable {
+
+    static final byte ADD = 1;
+    static final byte REMOVE = 2;
+    static final byte MOVE = 3;
+
+    private static final int FRAME_HEADER = 8;
+    private static final int FIXED_PAYLOAD = 17;
+    private static final int MAX_PAYLOAD = 1 << 20;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    /**
+     * Receives the records of a segment being replayed.
+     */
+    interface Handler {
+        void add(long id, String name, long parentId);
+
+        void remove(long id);
+
+        void move(long id, long newParentId);
+    }
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private IOException failure;
+
+    private WriteAheadLog(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens a segment for appending, creating it if needed.
+     *
+     * @param file the segment file
+     * @param sync whether {@link #awaitDurable} forces the file to disk or only writes it to the OS
+     */
+    static WriteAheadLog open(Path file, boolean sync) throws IOException {
+        return new WriteAheadLog(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), sync);
+    }
+
+    /**
+     * @return the sequence number of the addition, to be passed to {@link #awaitDurable}
+     */
+    long appendAdd(long id, String name, long parentId) {
+        return append(ADD, id, parentId, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the sequence number of the removal, to be passed to {@link #awaitDurable}
+     */
+    long appendRemove(long id) {
+        return append(REMOVE, id, 0L, new byte[0]);
+    }
+
+    /**
+     * @return the sequence number of the move, to be passed to {@link #awaitDurable}
+     */
+    long appendMove(long id, long newParentId) {
+        return append(MOVE, id, newParentId, new byte[0]);
+    }
+
+    /**
+     * @return the sequence number of the last record appended, 0 if there is none
+     */
+    long lastSequence() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code sequence} is on disk.
+     *
+     * @throws IOException if writing the log failed; the log then stays failed
+     */
+    void awaitDurable(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failure != null) {
+                    throw new IOException("Write-ahead log is no longer writable", failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // Become the leader: swap buffers so other writers keep appending while this batch is written.
+                flushing = true;
+                ByteBuffer batch = pending;
+                long target = appended;
+                pending = spare;
+                IOException error = null;
+                lock.unlock();
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) {
+                        channel.write(batch);
+                    }
+                    if (sync) {
+                        channel.force(false);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+                batch.clear();
+                spare = batch;
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durable = target;
+                }
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes every pending record and closes the segment.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitDurable(lastSequence());
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Replays the complete records of a segment in order. Reading stops at the first record that is cut short
+     * or fails its checksum, which is what a crash in the middle of a write leaves behind.
+     *
+     * @param file the segment file
+     * @param handler receives every complete record
+     * @return the length of the valid prefix of the file
+     */
+    static long read(Path file, Handler handler) throws IOException {
+        long valid = 0;
+        try (InputStream input = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(input, INITIAL_BUFFER))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                int checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    if (length < FIXED_PAYLOAD || length > MAX_PAYLOAD) {
+                        return valid;
+                    }
+                    checksum = in.readInt();
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return valid;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return valid;
+                }
+                dispatch(ByteBuffer.wrap(payload), handler);
+                valid += FRAME_HEADER + length;
+            }
+        }
+    }
+
+    private static void dispatch(ByteBuffer payload, Handler handler) throws IOException {
+        byte type = payload.get();
+        long id = payload.getLong();
+        long parentId = payload.getLong();
+        switch (type) {
+            case ADD -> handler.add(id, StandardCharsets.UTF_8.decode(payload).toString(), parentId);
+            case REMOVE -> handler.remove(id);
+            case MOVE -> handler.move(id, parentId);
+            default -> throw new IOException("Unknown write-ahead log record type " + type);
+        }
+    }
+
+    private long append(byte type, long id, long parentId, byte[] name) {
+        int length = FIXED_PAYLOAD + name.length;
+        if (length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Node name is too long for the write-ahead log");
+        }
+        lock.lock();
+        try {
+            ensureCapacity(FRAME_HEADER + length);
+            int start = pending.position();
+            pending.position(start + FRAME_HEADER);
+            pending.put(type).putLong(id).putLong(parentId).put(name);
+            CRC32 crc = new CRC32();
+            crc.update(pending.array(), start + FRAME_HEADER, length);
+            pending.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() << 1, pending.position() + bytes));
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+    }
+}
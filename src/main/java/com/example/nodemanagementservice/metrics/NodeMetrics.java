@@ -0,0 +1,85 @@
+package com.example.nodemanagementservice.metrics;
+
+import com.example.nodemanagementservice.cache.DescendantCache;
+import com.example.nodemanagementservice.cache.LruCache;
+import com.example.nodemanagementservice.cache.NodeNameCache;
+import com.example.nodemanagementservice.index.TreeIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters describing the cost of the node operations: latency, SQL statements, tree structure rows written
+ * and subtree sizes, all tagged with the operation name, plus the state of the caches and the tree index.
+ */
+@Component
+public class NodeMetrics {
+
+    private final MeterRegistry registry;
+
+    public NodeMetrics(MeterRegistry registry, NodeNameCache nodeNameCache, DescendantCache descendantCache, TreeIndex treeIndex) {
+        this.registry = registry;
+        bindCache("name", nodeNameCache.statistics());
+        bindCache("descendants", descendantCache.statistics());
+        Gauge.builder("node.tree.index.size", treeIndex, TreeIndex::size)
+                .description("Nodes held by the in-memory tree index")
+                .register(registry);
+        Gauge.builder("node.tree.index.ready", treeIndex, index -> index.isReady() ? 1 : 0)
+                .description("Whether reads are answered by the in-memory tree index")
+                .register(registry);
+    }
+
+    public void recordOperation(String operation, String outcome, Timer.Sample sample) {
+        sample.stop(Timer.builder("node.operation")
+                .description("Latency of node service operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    public void recordStatements(String operation, long statements) {
+        DistributionSummary.builder("node.operation.statements")
+                .description("SQL statements executed per node service operation")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(statements);
+    }
+
+    public void recordStructureRowsWritten(String operation, long rows) {
+        Counter.builder("node.structure.rows.written")
+                .description("Tree structure rows inserted or updated by the storage engine")
+                .tag("operation", operation)
+                .register(registry)
+                .increment(rows);
+    }
+
+    public void recordStructureRowsDeleted(String operation, long rows) {
+        Counter.builder("node.structure.rows.deleted")
+                .description("Tree structure rows deleted or cleared by the storage engine")
+                .tag("operation", operation)
+                .register(registry)
+                .increment(rows);
+    }
+
+    public void recordSubtreeSize(String operation, long nodes) {
+        DistributionSummary.builder("node.subtree.size")
+                .description("Nodes in the subtree touched by a node service operation")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nodes);
+    }
+
+    private void bindCache(String name, LruCache<?, ?> cache) {
+        Gauge.builder("node.cache.size", cache, LruCache::size).tag("cache", name).register(registry);
+        FunctionCounter.builder("node.cache.requests", cache, LruCache::hits).tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("node.cache.requests", cache, LruCache::misses).tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("node.cache.evictions", cache, LruCache::evictions).tag("cache", name).register(registry);
+    }
+}
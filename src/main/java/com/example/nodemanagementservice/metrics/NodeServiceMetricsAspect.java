@@ -0,0 +1,42 @@
+package com.example.nodemanagementservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every {@code NodeService} operation and counts the SQL statements it executes.
+ * Ordered before the transaction advice, so the measures include opening and committing the transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class NodeServiceMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final NodeMetrics nodeMetrics;
+
+    @Around("execution(public * com.example.nodemanagementservice.service.NodeService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long statementsBefore = SqlStatementCounter.current();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            nodeMetrics.recordOperation(operation, outcome, sample);
+            nodeMetrics.recordStatements(operation, SqlStatementCounter.current() - statementsBefore);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.nodemanagementservice.metrics;
+
+/**
+ * Per-thread count of the SQL statements executed through {@link StatementCountingDataSource}.
+ * Callers read it before and after a unit of work and keep the difference.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private SqlStatementCounter() {
+        // restrict instantiation
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    /**
+     * @return the number of statements executed by the current thread so far
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.entity.Node;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries over the {@code parent_id} column of {@code nodes}. Subtrees are walked down and ancestors up with
+ * recursive common table expressions, one index lookup of {@code idx_nodes_parent} or of the primary key per level.
+ */
+public interface AdjacencyListRepository extends Repository<Node, Long>, AdjacencyListRepositoryCustom {
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE nodes SET parent_id = :parentId WHERE id = :childId", nativeQuery = true)
+    int writeParent(long childId, long parentId);
+
+    @Query(value = "SELECT parent_id FROM nodes WHERE id = :id", nativeQuery = true)
+    Long findParentId(long id);
+
+    @Query(value = """
+            WITH RECURSIVE subtree (id) AS (
+                SELECT id FROM nodes WHERE parent_id = :id
+                UNION ALL
+                SELECT n.id FROM subtree s JOIN nodes n ON n.parent_id = s.id
+            )
+            SELECT id FROM subtree
+            """, nativeQuery = true)
+    List<Long> findDescendantIds(long id);
+
+    // The recursive table is materialized before any row is deleted.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            WITH RECURSIVE subtree (id) AS (
+                SELECT id FROM nodes WHERE id = :id
+                UNION ALL
+                SELECT n.id FROM subtree s JOIN nodes n ON n.parent_id = s.id
+            )
+            DELETE FROM nodes WHERE id IN (SELECT id FROM subtree)
+            """, nativeQuery = true)
+    int deleteSubtree(long id);
+
+    @Query(value = """
+            WITH RECURSIVE ancestors (id, parent_id) AS (
+                SELECT p.id, p.parent_id FROM nodes c JOIN nodes p ON p.id = c.parent_id WHERE c.id = :id
+                UNION ALL
+                SELECT n.id, n.parent_id FROM ancestors a JOIN nodes n ON n.id = a.parent_id
+            )
+            SELECT id FROM ancestors
+            """, nativeQuery = true)
+    List<Long> findAncestorIds(long id);
+
+    @Query(value = """
+            WITH RECURSIVE ancestors (id, parent_id, name, depth) AS (
+                SELECT p.id, p.parent_id, p.name, 1 FROM nodes c JOIN nodes p ON p.id = c.parent_id WHERE c.id = :id
+                UNION ALL
+                SELECT n.id, n.parent_id, n.name, a.depth + 1 FROM ancestors a JOIN nodes n ON n.id = a.parent_id
+            )
+            SELECT name FROM ancestors ORDER BY depth DESC
+            """, nativeQuery = true)
+    List<String> findAncestorNames(long id);
+
+    // The recursion stops at the deepest level asked for.
+    @Query(value = """
+            WITH RECURSIVE subtree (id, name, depth) AS (
+                SELECT id, name, 1 FROM nodes WHERE parent_id = :id
+                UNION ALL
+                SELECT n.id, n.name, s.depth + 1 FROM subtree s JOIN nodes n ON n.parent_id = s.id WHERE s.depth < :maxDepth
+            )
+            SELECT name FROM subtree WHERE depth >= :minDepth ORDER BY depth ASC, id ASC
+            """, nativeQuery = true)
+    List<String> findDescendantNames(long id, int minDepth, int maxDepth);
+
+    @Query(value = """
+            WITH RECURSIVE subtree (id, name, depth) AS (
+                SELECT id, name, 1 FROM nodes WHERE parent_id = :ancestorId
+                UNION ALL
+                SELECT n.id, n.name, s.depth + 1 FROM subtree s JOIN nodes n ON n.parent_id = s.id
+            )
+            SELECT id AS id, name AS name, depth AS depth FROM subtree
+            WHERE depth > :depth OR (depth = :depth AND id > :id)
+            ORDER BY depth ASC, id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<DescendantProjection> findDescendantsAfter(long ancestorId, int depth, long id, int limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            WITH RECURSIVE subtree (id, name, depth) AS (
+                SELECT id, name, 1 FROM nodes WHERE parent_id = :id
+                UNION ALL
+                SELECT n.id, n.name, s.depth + 1 FROM subtree s JOIN nodes n ON n.parent_id = s.id
+            )
+            SELECT name FROM subtree ORDER BY depth ASC, id ASC
+            """, nativeQuery = true)
+    Stream<String> streamDescendantNames(long id);
+
+    // Each level carries the name of its parent down from the previous one.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            WITH RECURSIVE subtree (id, name, parent_name, depth) AS (
+                SELECT c.id, c.name, p.name, 1 FROM nodes c JOIN nodes p ON p.id = c.parent_id WHERE c.parent_id = :id
+                UNION ALL
+                SELECT n.id, n.name, s.name, s.depth + 1 FROM subtree s JOIN nodes n ON n.parent_id = s.id
+            )
+            SELECT parent_name AS parentName, name AS childName FROM subtree ORDER BY depth ASC, id ASC
+            """, nativeQuery = true)
+    Stream<NodeEdgeProjection> streamSubtreeEdges(long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT parent_id AS parentId, id AS childId FROM nodes WHERE parent_id IS NOT NULL AND id > :id", nativeQuery = true)
+    Stream<NodeLinkProjection> streamParentLinksAfter(long id);
+
+    // Same checksum as TreeFingerprint.linkChecksum, with the modulus 1000000007 and the child factor 1000003.
+    @Query(value = """
+            SELECT COUNT(*) AS linkCount,
+                   COALESCE(SUM(MOD(MOD(link_key * link_key, 1000000007) * link_key, 1000000007)), 0) AS linkChecksum
+            FROM (SELECT MOD(MOD(id, 1000000007) * 1000003 + MOD(parent_id, 1000000007), 1000000007) AS link_key
+                  FROM nodes WHERE parent_id IS NOT NULL AND id <= :maxId) links
+            """, nativeQuery = true)
+    ParentLinkSummary summarizeParentLinks(long maxId);
+}
@@ -0,0 +1,14 @@
+package com.example.nodemanagementservice.repository;
+
+import java.util.List;
+
+public interface AdjacencyListRepositoryCustom {
+
+    /**
+     * Sets the parent of many new nodes with batched JDBC statements.
+     *
+     * @param links the new direct links
+     * @return the number of parents written
+     */
+    long writeParents(List<? extends NodeLinkProjection> links);
+}
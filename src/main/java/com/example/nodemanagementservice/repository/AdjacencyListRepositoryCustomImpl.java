@@ -0,0 +1,27 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of the batch parent update.
+ */
+@RequiredArgsConstructor
+public class AdjacencyListRepositoryCustomImpl implements AdjacencyListRepositoryCustom {
+
+    private static final String UPDATE_SQL = "UPDATE nodes SET parent_id = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long writeParents(List<? extends NodeLinkProjection> links) {
+        jdbcTemplate.batchUpdate(UPDATE_SQL, links, NodeManagementConstants.BATCH_SIZE, (ps, link) -> {
+            ps.setLong(1, link.getParentId());
+            ps.setLong(2, link.getChildId());
+        });
+        return links.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Lightweight view of a descendant row, carrying the keyset (depth, id) used to page through a subtree.
+ */
+public interface DescendantProjection {
+    Long getId();
+    String getName();
+    int getDepth();
+}
@@ -0,0 +1,13 @@
+package com.example.nodemanagementservice.repository;
+
+import lombok.Value;
+
+/**
+ * Descendant computed outside the database, e.g. by the in-memory tree.
+ */
+@Value
+public class DescendantRow implements DescendantProjection {
+    Long id;
+    String name;
+    int depth;
+}
@@ -0,0 +1,125 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.entity.Node;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries over the {@code path} column of {@code nodes}. A path lists the ids from the root down to the node itself,
+ * e.g. {@code /1/17/204/}; a node without a path is a root, whose path is implicitly {@code /id/}.
+ * Subtrees are selected with a {@code LIKE 'prefix%'} pattern, i.e. a range scan of {@code idx_nodes_path},
+ * and depths are counted as the slashes of a path beyond those of the subtree root ({@code baseDepth}).
+ */
+public interface MaterializedPathRepository extends Repository<Node, Long>, MaterializedPathRepositoryCustom {
+
+    @Query(value = "SELECT COALESCE(path, CONCAT('/', id, '/')) FROM nodes WHERE id = :id", nativeQuery = true)
+    String findPath(long id);
+
+    /**
+     * Sets the path of a new node from the path of its parent. The parent's path is read through a derived table
+     * so MySQL materializes it before updating the same table.
+     *
+     * @return the number of paths written
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE nodes SET path = (SELECT p.path
+                                     FROM (SELECT CONCAT(COALESCE(path, CONCAT('/', id, '/')), :childId, '/') AS path
+                                           FROM nodes WHERE id = :parentId) p)
+            WHERE id = :childId
+            """, nativeQuery = true)
+    int writePath(long childId, long parentId);
+
+    /**
+     * Moves a subtree by replacing the path prefix of its root and of every descendant in one statement.
+     * The root is also matched by id in case it has no path yet.
+     *
+     * @return the number of paths rewritten
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE nodes SET path = CONCAT(:newPrefix, SUBSTRING(COALESCE(path, :oldPrefix), :oldPrefixLength + 1))
+            WHERE path LIKE :pattern OR id = :nodeId
+            """, nativeQuery = true)
+    int replacePrefix(long nodeId, String oldPrefix, int oldPrefixLength, String newPrefix, String pattern);
+
+    @Query(value = "SELECT COALESCE(MAX(LENGTH(path)), 0) FROM nodes WHERE path LIKE :pattern", nativeQuery = true)
+    int findMaxPathLength(String pattern);
+
+    @Query(value = "SELECT id FROM nodes WHERE path LIKE :pattern", nativeQuery = true)
+    List<Long> findIdsByPathLike(String pattern);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM nodes WHERE path LIKE :pattern OR id = :nodeId", nativeQuery = true)
+    int deleteSubtree(long nodeId, String pattern);
+
+    @Query(value = "SELECT COUNT(*) FROM nodes WHERE id = :id AND path LIKE :pattern", nativeQuery = true)
+    long countByIdAndPathLike(long id, String pattern);
+
+    // Ancestors have strictly longer paths the closer they are to the node; a root has none.
+    @Query(value = "SELECT name FROM nodes WHERE id IN :ids ORDER BY COALESCE(LENGTH(path), 0)", nativeQuery = true)
+    List<String> findNamesInPathOrder(Collection<Long> ids);
+
+    @Query(value = """
+            SELECT d.name FROM (SELECT n.id, n.name, LENGTH(n.path) - LENGTH(REPLACE(n.path, '/', '')) - :baseDepth AS depth
+                                FROM nodes n WHERE n.path LIKE :pattern) d
+            WHERE d.depth BETWEEN :minDepth AND :maxDepth
+            ORDER BY d.depth ASC, d.id ASC
+            """, nativeQuery = true)
+    List<String> findDescendantNames(String pattern, int baseDepth, int minDepth, int maxDepth);
+
+    @Query(value = """
+            SELECT d.id AS id, d.name AS name, d.depth AS depth
+            FROM (SELECT n.id, n.name, LENGTH(n.path) - LENGTH(REPLACE(n.path, '/', '')) - :baseDepth AS depth
+                  FROM nodes n WHERE n.path LIKE :pattern) d
+            WHERE d.depth > :depth OR (d.depth = :depth AND d.id > :id)
+            ORDER BY d.depth ASC, d.id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<DescendantProjection> findDescendantsAfter(String pattern, int baseDepth, int depth, long id, int limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT name FROM nodes WHERE path LIKE :pattern ORDER BY LENGTH(path) - LENGTH(REPLACE(path, '/', '')) ASC, id ASC",
+            nativeQuery = true)
+    Stream<String> streamDescendantNames(String pattern);
+
+    // The parent of a node is the node whose path is its own without the last id; the subtree root may be a root
+    // without a path, in which case its name is given.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT COALESCE(p.name, :rootName) AS parentName, c.name AS childName
+            FROM nodes c LEFT JOIN nodes p ON p.path = SUBSTRING(c.path, 1, LENGTH(c.path) - LENGTH(CONCAT(c.id, '/')))
+            WHERE c.path LIKE :pattern
+            ORDER BY LENGTH(c.path) - LENGTH(REPLACE(c.path, '/', '')) ASC, c.id ASC
+            """, nativeQuery = true)
+    Stream<NodeEdgeProjection> streamSubtreeEdges(String pattern, String rootName);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT id AS id, path AS path FROM nodes WHERE path IS NOT NULL AND id > :id", nativeQuery = true)
+    Stream<NodePathProjection> streamPathsAfter(long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT id AS id, path AS path FROM nodes WHERE path IS NOT NULL AND id <= :maxId", nativeQuery = true)
+    Stream<NodePathProjection> streamPathsUpTo(long maxId);
+}
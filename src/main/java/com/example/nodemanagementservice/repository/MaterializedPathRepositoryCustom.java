@@ -0,0 +1,18 @@
+package com.example.nodemanagementservice.repository;
+
+import java.util.List;
+
+public interface MaterializedPathRepositoryCustom {
+
+    /**
+     * Sets the path of many new nodes with batched JDBC statements.
+     * Links must be ordered parents first; a parent that is not a child of an earlier link must already
+     * have its path stored, or be a root.
+     *
+     * @param links the new direct links, parents first
+     * @return the number of paths written
+     * @throws com.example.nodemanagementservice.exception.InvalidRequestException if a path would exceed
+     *         {@link com.example.nodemanagementservice.constants.NodeManagementConstants#MATERIALIZED_PATH_MAX_LENGTH}
+     */
+    long writePaths(List<? extends NodeLinkProjection> links);
+}
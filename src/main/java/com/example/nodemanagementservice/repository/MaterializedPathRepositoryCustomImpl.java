@@ -0,0 +1,67 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of the batch path update. The paths of the stored parents are read once,
+ * the paths of the new nodes are then derived from their parent's in memory.
+ */
+@RequiredArgsConstructor
+public class MaterializedPathRepositoryCustomImpl implements MaterializedPathRepositoryCustom {
+
+    private static final String UPDATE_SQL = "UPDATE nodes SET path = ? WHERE id = ?";
+    private static final String SELECT_PATHS_SQL = "SELECT id, COALESCE(path, CONCAT('/', id, '/')) FROM nodes WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long writePaths(List<? extends NodeLinkProjection> links) {
+        Map<Long, String> paths = new HashMap<>();
+        loadPaths(NodeRelationshipRepositoryCustomImpl.findOutsideParents(links), paths);
+
+        List<Object[]> rows = new ArrayList<>(NodeManagementConstants.BATCH_SIZE);
+        long written = 0;
+        for (NodeLinkProjection link : links) {
+            String path = paths.get(link.getParentId()) + link.getChildId() + "/";
+            if (path.length() > NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH) {
+                throw new InvalidRequestException("The tree would be too deep: node paths are limited to "
+                        + NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH + " characters");
+            }
+            paths.put(link.getChildId(), path);
+            rows.add(new Object[]{path, link.getChildId()});
+            if (rows.size() == NodeManagementConstants.BATCH_SIZE) {
+                written += flush(rows);
+            }
+        }
+        return written + flush(rows);
+    }
+
+    private void loadPaths(List<Long> nodeIds, Map<Long, String> paths) {
+        for (int from = 0; from < nodeIds.size(); from += NodeManagementConstants.BATCH_SIZE) {
+            List<Long> chunk = nodeIds.subList(from, Math.min(nodeIds.size(), from + NodeManagementConstants.BATCH_SIZE));
+            String sql = String.format(SELECT_PATHS_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                paths.put(rs.getLong(1), rs.getString(2));
+            }, chunk.toArray());
+        }
+    }
+
+    private int flush(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        int count = rows.size();
+        rows.clear();
+        return count;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.entity.Node;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries over the nested-set columns {@code lft}, {@code rgt} and {@code lvl} of {@code nodes}.
+ * A subtree is the range {@code lft < n.lft < rgt} of {@code idx_nodes_lft}. The parent of a node is the node one level
+ * up with the greatest {@code lft} before its own, a single descending probe of {@code idx_nodes_lvl_lft};
+ * the ancestors are found with one such probe per level.
+ * Reads made to place new intervals lock the rows they read, so they see the latest committed numbering.
+ */
+public interface NestedSetRepository extends Repository<Node, Long>, NestedSetRepositoryCustom {
+
+    @Query(value = "SELECT lft AS lft, rgt AS rgt, lvl AS lvl FROM nodes WHERE id = :id", nativeQuery = true)
+    NodeIntervalProjection findInterval(long id);
+
+    @Query(value = "SELECT lft AS lft, rgt AS rgt, lvl AS lvl FROM nodes WHERE id = :id FOR UPDATE", nativeQuery = true)
+    NodeIntervalProjection lockInterval(long id);
+
+    // End of the last child of an interval, i.e. the greatest right bound inside it.
+    @Query(value = "SELECT rgt FROM nodes WHERE rgt > :lft AND rgt < :rgt ORDER BY rgt DESC LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Long lockLastRightWithin(long lft, long rgt);
+
+    @Query(value = "SELECT rgt FROM nodes WHERE rgt IS NOT NULL ORDER BY rgt DESC LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Long lockLastRight();
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE nodes SET lft = :lft, rgt = :rgt, lvl = :lvl WHERE id = :id", nativeQuery = true)
+    int writeInterval(long id, long lft, long rgt, int lvl);
+
+    /**
+     * Opens a gap of {@code shift} positions at {@code position}: every bound at or after it moves right,
+     * which widens the intervals containing the position and moves the ones after it.
+     *
+     * @return the number of nodes renumbered
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE nodes SET lft = CASE WHEN lft >= :position THEN lft + :shift ELSE lft END,
+                             rgt = rgt + :shift
+            WHERE rgt >= :position
+            """, nativeQuery = true)
+    int openGap(long position, long shift);
+
+    /**
+     * Moves the subtree numbered {@code [lft, rgt]} by {@code offset} positions and {@code levelDelta} levels.
+     * The target range must be free.
+     *
+     * @return the number of nodes moved
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE nodes SET lft = lft + :offset, rgt = rgt + :offset, lvl = lvl + :levelDelta
+            WHERE lft BETWEEN :lft AND :rgt
+            """, nativeQuery = true)
+    int moveRange(long lft, long rgt, long offset, int levelDelta);
+
+    @Query(value = "SELECT id FROM nodes WHERE lft > :lft AND lft < :rgt", nativeQuery = true)
+    List<Long> findIdsWithin(long lft, long rgt);
+
+    // A node that was never numbered has null bounds and is deleted alone.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM nodes WHERE id = :id OR (lft > :lft AND lft < :rgt)", nativeQuery = true)
+    int deleteSubtree(long id, Long lft, Long rgt);
+
+    @Query(value = "SELECT id FROM nodes WHERE lvl = :lvl AND lft < :lft ORDER BY lft DESC LIMIT 1", nativeQuery = true)
+    Long findEnclosingId(int lvl, long lft);
+
+    @Query(value = """
+            SELECT (SELECT a.id FROM nodes a WHERE a.lvl = l.lvl AND a.lft < :lft ORDER BY a.lft DESC LIMIT 1)
+            FROM (SELECT DISTINCT lvl FROM nodes WHERE lvl < :lvl) l
+            """, nativeQuery = true)
+    List<Long> findAncestorIds(int lvl, long lft);
+
+    @Query(value = """
+            SELECT (SELECT a.name FROM nodes a WHERE a.lvl = l.lvl AND a.lft < :lft ORDER BY a.lft DESC LIMIT 1)
+            FROM (SELECT DISTINCT lvl FROM nodes WHERE lvl < :lvl) l
+            ORDER BY l.lvl ASC
+            """, nativeQuery = true)
+    List<String> findAncestorNames(int lvl, long lft);
+
+    @Query(value = """
+            SELECT name FROM nodes
+            WHERE lft > :lft AND lft < :rgt AND lvl BETWEEN :minLvl AND :maxLvl
+            ORDER BY lvl ASC, id ASC
+            """, nativeQuery = true)
+    List<String> findDescendantNames(long lft, long rgt, int minLvl, int maxLvl);
+
+    @Query(value = """
+            SELECT id AS id, name AS name, lvl - :baseLvl AS depth FROM nodes
+            WHERE lft > :lft AND lft < :rgt
+              AND (lvl > :baseLvl + :depth OR (lvl = :baseLvl + :depth AND id > :id))
+            ORDER BY lvl ASC, id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<DescendantProjection> findDescendantsAfter(long lft, long rgt, int baseLvl, int depth, long id, int limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT name FROM nodes WHERE lft > :lft AND lft < :rgt ORDER BY lvl ASC, id ASC", nativeQuery = true)
+    Stream<String> streamDescendantNames(long lft, long rgt);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT (SELECT p.name FROM nodes p WHERE p.lvl = c.lvl - 1 AND p.lft < c.lft ORDER BY p.lft DESC LIMIT 1) AS parentName,
+                   c.name AS childName
+            FROM nodes c
+            WHERE c.lft > :lft AND c.lft < :rgt
+            ORDER BY c.lvl ASC, c.id ASC
+            """, nativeQuery = true)
+    Stream<NodeEdgeProjection> streamSubtreeEdges(long lft, long rgt);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT (SELECT p.id FROM nodes p WHERE p.lvl = c.lvl - 1 AND p.lft < c.lft ORDER BY p.lft DESC LIMIT 1) AS parentId,
+                   c.id AS childId
+            FROM nodes c
+            WHERE c.lvl > 0 AND c.id > :id
+            """, nativeQuery = true)
+    Stream<NodeLinkProjection> streamParentLinksAfter(long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT (SELECT p.id FROM nodes p WHERE p.lvl = c.lvl - 1 AND p.lft < c.lft ORDER BY p.lft DESC LIMIT 1) AS parentId,
+                   c.id AS childId
+            FROM nodes c
+            WHERE c.lvl > 0 AND c.id <= :maxId
+            """, nativeQuery = true)
+    Stream<NodeLinkProjection> streamParentLinksUpTo(long maxId);
+}
@@ -0,0 +1,14 @@
+package com.example.nodemanagementservice.repository;
+
+import java.util.List;
+
+public interface NestedSetRepositoryCustom {
+
+    /**
+     * Sets the interval of many nodes with batched JDBC statements.
+     *
+     * @param intervals one {id, lft, rgt, lvl} array per node
+     * @return the number of intervals written
+     */
+    long writeIntervals(List<long[]> intervals);
+}
@@ -0,0 +1,29 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of the batch interval update.
+ */
+@RequiredArgsConstructor
+public class NestedSetRepositoryCustomImpl implements NestedSetRepositoryCustom {
+
+    private static final String UPDATE_SQL = "UPDATE nodes SET lft = ?, rgt = ?, lvl = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long writeIntervals(List<long[]> intervals) {
+        jdbcTemplate.batchUpdate(UPDATE_SQL, intervals, NodeManagementConstants.BATCH_SIZE, (ps, interval) -> {
+            ps.setLong(1, interval[1]);
+            ps.setLong(2, interval[2]);
+            ps.setInt(3, (int) interval[3]);
+            ps.setLong(4, interval[0]);
+        });
+        return intervals.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Direct parent/child link expressed with node names, for native queries that cannot build a DTO.
+ */
+public interface NodeEdgeProjection {
+    String getParentName();
+    String getChildName();
+}
@@ -0,0 +1,12 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Nested-set interval of a node: its descendants are the nodes whose {@code lft} lies strictly between
+ * its {@code lft} and {@code rgt}, and {@code lvl} is its depth below the root. All three are null for a root
+ * that has not been numbered yet.
+ */
+public interface NodeIntervalProjection {
+    Long getLft();
+    Long getRgt();
+    Integer getLvl();
+}
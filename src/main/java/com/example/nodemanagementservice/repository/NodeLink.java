@@ -0,0 +1,12 @@
+package com.example.nodemanagementservice.repository;
+
+import lombok.Value;
+
+/**
+ * Direct parent/child link between two existing node ids, used by batch closure-table inserts.
+ */
+@Value
+public class NodeLink implements NodeLinkProjection {
+    Long parentId;
+    Long childId;
+}
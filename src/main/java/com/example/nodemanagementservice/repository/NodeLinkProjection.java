@@ -0,0 +1,9 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Direct parent/child link, i.e. a closure row of depth 1, expressed with node ids.
+ */
+public interface NodeLinkProjection {
+    Long getParentId();
+    Long getChildId();
+}
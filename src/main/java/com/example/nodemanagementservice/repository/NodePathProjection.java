@@ -0,0 +1,9 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Id and materialized path of a node, e.g. {@code /1/17/204/} for node 204 under node 17 under the root 1.
+ */
+public interface NodePathProjection {
+    Long getId();
+    String getPath();
+}
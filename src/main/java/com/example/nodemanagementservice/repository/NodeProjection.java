@@ -0,0 +1,9 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Lightweight view of a node row, used when the whole table is scanned.
+ */
+public interface NodeProjection {
+    Long getId();
+    String getName();
+}
@@ -1,29 +1,183 @@
 package com.example.nodemanagementservice.repository;
 
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.NodeEdge;
 import com.example.nodemanagementservice.entity.NodeRelationship;
+import com.example.nodemanagementservice.entity.NodeRelationshipId;
 import com.example.nodemanagementservice.entity.Node;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface NodeRelationshipRepository extends JpaRepository<NodeRelationship, Long> {
+public interface NodeRelationshipRepository extends JpaRepository<NodeRelationship, NodeRelationshipId>, NodeRelationshipRepositoryCustom {
 
-    @Query("SELECT r FROM NodeRelationship r WHERE r.ancestor = :ancestor")
-    List<NodeRelationship> findByAncestor(Node ancestor);
+    @Query("""
+            SELECT d.name FROM NodeRelationship r JOIN r.descendant d
+            WHERE r.ancestor = :ancestor AND r.depth BETWEEN :minDepth AND :maxDepth
+            ORDER BY r.depth ASC, d.id ASC
+            """)
+    List<String> findDescendantNames(Node ancestor, int minDepth, int maxDepth);
 
-    @Query("SELECT r FROM NodeRelationship r WHERE r.descendant = :descendant")
-    List<NodeRelationship> findByDescendant(Node descendant);
+    @Query("SELECT a.name FROM NodeRelationship r JOIN r.ancestor a WHERE r.descendant = :descendant ORDER BY r.depth DESC")
+    List<String> findAncestorNames(Node descendant);
 
-    @Query("SELECT r FROM NodeRelationship r WHERE r.ancestor = :ancestor ORDER BY r.id ASC")
-    List<NodeRelationship> findByAncestorOrderedById(Node ancestor);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d.name FROM NodeRelationship r JOIN r.descendant d WHERE r.ancestor = :ancestor ORDER BY r.depth ASC, d.id ASC")
+    Stream<String> streamDescendantNames(Node ancestor);
+
+    // Direct links inside the subtree: every subtree row joined to the depth-1 row of its descendant, parents first.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.nodemanagementservice.dto.NodeEdge(p.name, c.name) FROM NodeRelationship s " +
+            "JOIN NodeRelationship e ON e.descendant = s.descendant AND e.depth = 1 " +
+            "JOIN e.ancestor p JOIN e.descendant c " +
+            "WHERE s.ancestor = :ancestor ORDER BY s.depth ASC, c.id ASC")
+    Stream<NodeEdge> streamSubtreeEdges(Node ancestor);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.ancestor.id AS parentId, r.descendant.id AS childId FROM NodeRelationship r WHERE r.depth = 1")
+    Stream<NodeLinkProjection> streamParentLinks();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.ancestor.id AS parentId, r.descendant.id AS childId FROM NodeRelationship r " +
+            "WHERE r.depth = 1 AND r.descendant.id > :childId")
+    Stream<NodeLinkProjection> streamParentLinksAfter(long childId);
+
+    // Same checksum as TreeFingerprint.linkChecksum, with the modulus 1000000007 and the child factor 1000003.
+    @Query(value = """
+            SELECT COUNT(*) AS linkCount,
+                   COALESCE(SUM(MOD(MOD(link_key * link_key, 1000000007) * link_key, 1000000007)), 0) AS linkChecksum
+            FROM (SELECT MOD(MOD(descendant_id, 1000000007) * 1000003 + MOD(ancestor_id, 1000000007), 1000000007) AS link_key
+                  FROM node_relationships WHERE depth = 1 AND descendant_id <= :maxId) links
+            """, nativeQuery = true)
+    ParentLinkSummary summarizeParentLinks(long maxId);
+
+    @Query("""
+            SELECT d.id AS id, d.name AS name, r.depth AS depth
+            FROM NodeRelationship r JOIN r.descendant d
+            WHERE r.ancestor = :ancestor
+              AND (r.depth > :depth OR (r.depth = :depth AND d.id > :id))
+            ORDER BY r.depth ASC, d.id ASC
+            """)
+    List<DescendantProjection> findDescendantsAfter(Node ancestor, int depth, long id, Pageable pageable);
 
     @Query("SELECT r FROM NodeRelationship r WHERE r.descendant = :descendant AND r.depth = 1")
     Optional<NodeRelationship> findByDescendantWithDepthOne(Node descendant);
 
-    void deleteByDescendant(Node descendant);
-    void deleteByAncestor(Node ancestor);
-    void deleteByAncestorAndDescendant(Node ancestor, Node descendant);
+    boolean existsByAncestorAndDescendant(Node ancestor, Node descendant);
+
+    /**
+     * Links a freshly created node to its parent and to every ancestor of the parent in a single statement.
+     * The parent's own closure rows are copied with their depth shifted by one, and the depth-1 row is
+     * produced by the second branch of the union.
+     *
+     * @return the number of closure rows inserted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO node_relationships (ancestor_id, descendant_id, depth)
+            SELECT a.ancestor_id, c.id, a.depth + 1
+            FROM (SELECT r.ancestor_id, r.depth FROM node_relationships r WHERE r.descendant_id = :parentId
+                  UNION ALL
+                  SELECT p.id, 0 FROM nodes p WHERE p.id = :parentId) a,
+                 nodes c
+            WHERE c.id = :childId
+            """, nativeQuery = true)
+    int insertPathsToAncestors(Long childId, Long parentId);
+
+    @Query("SELECT r.descendant.id FROM NodeRelationship r WHERE r.ancestor = :ancestor")
+    List<Long> findDescendantIds(Node ancestor);
+
+    @Query("SELECT r.ancestor.id FROM NodeRelationship r WHERE r.descendant = :descendant")
+    List<Long> findAncestorIds(Node descendant);
+
+    /**
+     * First half of a subtree delete: removes every closure row whose descendant is the subtree root or one of its
+     * descendants, except the rows from the root itself, which still select the subtree for
+     * {@link #deleteSubtreeNodes}. The inner select is wrapped in a derived table so MySQL materializes it
+     * before deleting from the same table.
+     *
+     * @return the number of closure rows deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            DELETE FROM node_relationships
+            WHERE ancestor_id <> :nodeId
+              AND (descendant_id = :nodeId
+                   OR descendant_id IN (SELECT d.descendant_id
+                                        FROM (SELECT descendant_id FROM node_relationships WHERE ancestor_id = :nodeId) d))
+            """, nativeQuery = true)
+    int deleteSubtreePathsExceptFromRoot(Long nodeId);
+
+    /**
+     * Second half of a subtree delete: removes the subtree root and its descendants from {@code nodes}.
+     * The foreign keys cascade to the closure rows left by {@link #deleteSubtreePathsExceptFromRoot}, one per descendant.
+     *
+     * @return the number of nodes deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            DELETE FROM nodes
+            WHERE id = :nodeId
+               OR id IN (SELECT d.descendant_id
+                         FROM (SELECT descendant_id FROM node_relationships WHERE ancestor_id = :nodeId) d)
+            """, nativeQuery = true)
+    int deleteSubtreeNodes(Long nodeId);
+
+    /**
+     * Detaches a subtree from its current ancestors: removes every row linking an ancestor of the subtree root
+     * to the root or to one of its descendants. Rows inside the subtree are kept. The inner selects are wrapped
+     * in derived tables so MySQL materializes them before deleting from the same table.
+     *
+     * @return the number of closure rows deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            DELETE FROM node_relationships
+            WHERE ancestor_id IN (SELECT a.ancestor_id
+                                  FROM (SELECT ancestor_id FROM node_relationships WHERE descendant_id = :nodeId) a)
+              AND (descendant_id = :nodeId
+                   OR descendant_id IN (SELECT d.descendant_id
+                                        FROM (SELECT descendant_id FROM node_relationships WHERE ancestor_id = :nodeId) d))
+            """, nativeQuery = true)
+    int deleteSubtreePathsToAncestors(Long nodeId);
+
+    /**
+     * Attaches a subtree under a new parent by cross-joining the parent and its ancestors with the subtree root
+     * and its descendants.
+     *
+     * @return the number of closure rows inserted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO node_relationships (ancestor_id, descendant_id, depth)
+            SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1
+            FROM (SELECT r.ancestor_id, r.depth FROM node_relationships r WHERE r.descendant_id = :parentId
+                  UNION ALL
+                  SELECT p.id, 0 FROM nodes p WHERE p.id = :parentId) a,
+                 (SELECT r.descendant_id, r.depth FROM node_relationships r WHERE r.ancestor_id = :nodeId
+                  UNION ALL
+                  SELECT n.id, 0 FROM nodes n WHERE n.id = :nodeId) d
+            """, nativeQuery = true)
+    int insertSubtreePathsToAncestors(Long nodeId, Long parentId);
 
 }
@@ -0,0 +1,16 @@
+package com.example.nodemanagementservice.repository;
+
+import java.util.List;
+
+public interface NodeRelationshipRepositoryCustom {
+
+    /**
+     * Inserts the closure rows of many new nodes with batched JDBC statements.
+     * Links must be ordered parents first; a parent that is not a child of an earlier link must already
+     * have its closure rows stored.
+     *
+     * @param links the new direct links, parents first
+     * @return the number of closure rows inserted
+     */
+    long insertClosureRows(List<? extends NodeLinkProjection> links);
+}
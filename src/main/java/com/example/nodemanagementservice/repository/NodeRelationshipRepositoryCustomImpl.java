@@ -0,0 +1,103 @@
+package com.example.nodemanagementservice.repository;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC implementation of the batch closure-table insert. Ancestor chains are kept as flattened
+ * (ancestorId, depth) pairs so each new node costs one array copy instead of one query.
+ */
+@RequiredArgsConstructor
+public class NodeRelationshipRepositoryCustomImpl implements NodeRelationshipRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO node_relationships (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)";
+    private static final String SELECT_CHAINS_SQL = "SELECT descendant_id, ancestor_id, depth FROM node_relationships WHERE descendant_id IN (%s)";
+    private static final long[] NO_ANCESTORS = new long[0];
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long insertClosureRows(List<? extends NodeLinkProjection> links) {
+        Map<Long, long[]> chains = new HashMap<>();
+        loadChains(findOutsideParents(links), chains);
+
+        List<long[]> rows = new ArrayList<>(NodeManagementConstants.BATCH_SIZE);
+        long inserted = 0;
+        for (NodeLinkProjection link : links) {
+            // The child's ancestors are its parent at depth 1 plus the parent's ancestors one level further.
+            long[] parentChain = chains.getOrDefault(link.getParentId(), NO_ANCESTORS);
+            long[] chain = new long[parentChain.length + 2];
+            chain[0] = link.getParentId();
+            chain[1] = 1;
+            for (int i = 0; i < parentChain.length; i += 2) {
+                chain[i + 2] = parentChain[i];
+                chain[i + 3] = parentChain[i + 1] + 1;
+            }
+            chains.put(link.getChildId(), chain);
+
+            for (int i = 0; i < chain.length; i += 2) {
+                rows.add(new long[]{chain[i], link.getChildId(), chain[i + 1]});
+                if (rows.size() == NodeManagementConstants.BATCH_SIZE) {
+                    inserted += flush(rows);
+                }
+            }
+        }
+        return inserted + flush(rows);
+    }
+
+    // Parents that are not created by an earlier link, i.e. nodes already stored.
+    static List<Long> findOutsideParents(List<? extends NodeLinkProjection> links) {
+        Set<Long> children = new HashSet<>();
+        Set<Long> outside = new HashSet<>();
+        for (NodeLinkProjection link : links) {
+            if (!children.contains(link.getParentId())) {
+                outside.add(link.getParentId());
+            }
+            children.add(link.getChildId());
+        }
+        return new ArrayList<>(outside);
+    }
+
+    private void loadChains(List<Long> nodeIds, Map<Long, long[]> chains) {
+        Map<Long, List<long[]>> pairs = new HashMap<>();
+        for (int from = 0; from < nodeIds.size(); from += NodeManagementConstants.BATCH_SIZE) {
+            List<Long> chunk = nodeIds.subList(from, Math.min(nodeIds.size(), from + NodeManagementConstants.BATCH_SIZE));
+            String sql = String.format(SELECT_CHAINS_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                pairs.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                        .add(new long[]{rs.getLong(2), rs.getInt(3)});
+            }, chunk.toArray());
+        }
+        pairs.forEach((nodeId, ancestors) -> {
+            long[] chain = new long[ancestors.size() * 2];
+            for (int i = 0; i < ancestors.size(); i++) {
+                chain[2 * i] = ancestors.get(i)[0];
+                chain[2 * i + 1] = ancestors.get(i)[1];
+            }
+            chains.put(nodeId, chain);
+        });
+    }
+
+    private int flush(List<long[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row[0]);
+            ps.setLong(2, row[1]);
+            ps.setInt(3, (int) row[2]);
+        });
+        int count = rows.size();
+        rows.clear();
+        return count;
+    }
+}
@@ -1,10 +1,37 @@
 package com.example.nodemanagementservice.repository;
 
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
 import com.example.nodemanagementservice.entity.Node;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface NodeRepository extends JpaRepository<Node, Long> {
     Optional<Node> findByName(String name);
+
+    @Query("SELECT n.id AS id, n.name AS name FROM Node n WHERE n.name IN :names")
+    List<NodeProjection> findByNameIn(Collection<String> names);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n.id AS id, n.name AS name FROM Node n")
+    Stream<NodeProjection> streamAllNodes();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = NodeManagementConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n.id AS id, n.name AS name FROM Node n WHERE n.id > :id")
+    Stream<NodeProjection> streamNodesAfter(long id);
+
+    long countByIdLessThanEqual(Long id);
 }
@@ -0,0 +1,9 @@
+package com.example.nodemanagementservice.repository;
+
+/**
+ * Count and checksum of a range of direct parent/child links, used to validate tree index snapshots.
+ */
+public interface ParentLinkSummary {
+    Long getLinkCount();
+    Long getLinkChecksum();
+}
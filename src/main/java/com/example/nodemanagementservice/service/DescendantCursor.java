@@ -0,0 +1,49 @@
+package com.example.nodemanagementservice.service;
+
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position inside a subtree, encoded as an opaque URL-safe string.
+ * Descendants are ordered by (depth, id), so the cursor holds the last pair returned.
+ */
+@Getter
+@AllArgsConstructor
+final class DescendantCursor {
+
+    private static final DescendantCursor FIRST = new DescendantCursor(0, 0L);
+
+    private final int depth;
+    private final long id;
+
+    /**
+     * Decodes a cursor previously returned to a client, or the start position when none is given.
+     *
+     * @param cursor the encoded cursor, may be null or blank
+     * @return the decoded position
+     * @throws InvalidRequestException if the cursor is malformed
+     */
+    static DescendantCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            return new DescendantCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor " + cursor);
+        }
+    }
+
+    String encode() {
+        String raw = depth + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
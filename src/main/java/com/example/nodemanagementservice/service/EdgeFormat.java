@@ -0,0 +1,102 @@
+package com.example.nodemanagementservice.service;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import org.springframework.http.MediaType;
+
+/**
+ * Text formats of a parent/child edge list, one edge per line.
+ * CSV lines are {@code parentName,childName} with an optional header line;
+ * NDJSON lines are {@code {"parentName": ..., "childName": ...}} objects.
+ */
+public enum EdgeFormat {
+    CSV("text/csv", ".csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE, ".ndjson");
+
+    public static final String CSV_HEADER = "parentName,childName";
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    EdgeFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks a format by name, ignoring case.
+     *
+     * @param name the name of the format, csv or ndjson
+     * @return the matching format
+     * @throws InvalidRequestException if no format matches
+     */
+    public static EdgeFormat fromName(String name) {
+        for (EdgeFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException("Unsupported edge list format " + name);
+    }
+
+    /**
+     * Formats an edge as a CSV line without the line terminator, quoting names that need it.
+     *
+     * @param edge the edge to format
+     * @return the CSV line
+     */
+    public static String toCsvLine(NodeEdge edge) {
+        return quote(edge.getParentName()) + ',' + quote(edge.getChildName());
+    }
+
+    private static String quote(String name) {
+        if (name.indexOf(',') < 0 && name.indexOf('"') < 0 && name.indexOf('\n') < 0
+                && name.indexOf('\r') < 0 && name.equals(name.trim())) {
+            return name;
+        }
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Picks the format matching a request content type.
+     *
+     * @param contentType the content type of the request
+     * @return the matching format
+     * @throws InvalidRequestException if no format matches
+     */
+    public static EdgeFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            var requested = MediaType.parseMediaType(contentType);
+            for (EdgeFormat format : values()) {
+                if (format.mediaType.includes(requested)) {
+                    return format;
+                }
+            }
+        }
+        throw new InvalidRequestException("Unsupported edge list content type " + contentType);
+    }
+
+    /**
+     * Picks the format matching a file name, ignoring a trailing {@code .gz}.
+     *
+     * @param fileName the name of the file
+     * @return the matching format
+     * @throws InvalidRequestException if no format matches
+     */
+    public static EdgeFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase().replaceFirst("\\.gz$", "");
+        for (EdgeFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        if (name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new InvalidRequestException("Unsupported edge list file " + fileName);
+    }
+}
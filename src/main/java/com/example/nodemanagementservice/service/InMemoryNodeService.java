@@ -0,0 +1,333 @@
+package com.example.nodemanagementservice.service;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.dto.ChildNodeTreeRequest;
+import com.example.nodemanagementservice.dto.DescendantPageResponse;
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import com.example.nodemanagementservice.exception.NodeAlreadyExistsException;
+import com.example.nodemanagementservice.exception.ResourceNotFoundException;
+import com.example.nodemanagementservice.index.TreeIndex;
+import com.example.nodemanagementservice.memory.InMemoryTreeStore;
+import com.example.nodemanagementservice.metrics.NodeMetrics;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Node service of the {@code in-memory} storage engine. The tree lives only in the {@link TreeIndex} and is
+ * persisted by the {@link InMemoryTreeStore} write-ahead log and snapshots; the database is not used.
+ * Writes are validated and applied one at a time. Reads share the read lock of the index, so they wait only while
+ * a write updates the arrays, never for its log record to reach the disk.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "node-management.storage.engine", havingValue = "in-memory")
+@RequiredArgsConstructor
+public class InMemoryNodeService implements NodeService {
+
+    private final InMemoryTreeStore store;
+    private final TreeIndex treeIndex;
+    private final NodeMetrics nodeMetrics;
+
+    /**
+     * Adds a child node under a specified parent node.
+     *
+     * @param parentName the name of the parent node
+     * @param request the details of the child node to be added
+     * @return the newly created child node
+     * @throws ResourceNotFoundException if the parent node does not exist
+     * @throws NodeAlreadyExistsException if the child node already exists
+     */
+    @Override
+    public Node addChild(String parentName, ChildNodeRequest request) {
+        log.info("Adding child node '{}' under parent '{}'", request.getChildName(), parentName);
+        String childName = request.getChildName();
+        long childId = store.write(() -> {
+            long parentId = findIdByName(parentName);
+            checkOrThrowIfAlreadyExists(childName);
+            return store.add(childName, parentId);
+        });
+        log.info("Successfully added child node '{}' under parent '{}'", childName, parentName);
+        return Node.builder().id(childId).name(childName).build();
+    }
+
+    /**
+     * Adds a tree of child nodes under a specified parent node. The whole tree is validated before any node is added.
+     *
+     * @param parentName the name of the parent node
+     * @param children the child nodes to be added, each with its own children
+     * @return the number of nodes created
+     * @throws ResourceNotFoundException if the parent node does not exist
+     * @throws NodeAlreadyExistsException if one of the nodes already exists
+     * @throws InvalidRequestException if a name is empty or appears more than once in the request
+     */
+    @Override
+    public int addChildren(String parentName, List<ChildNodeTreeRequest> children) {
+        log.info("Adding {} child trees under parent '{}'", children.size(), parentName);
+        findIdByName(parentName);
+        int created = insertEdges(NodeEdges.flatten(parentName, children));
+        nodeMetrics.recordSubtreeSize("addChildren", created);
+        log.info("Successfully added {} nodes under parent '{}'", created, parentName);
+        return created;
+    }
+
+    /**
+     * Adds a list of parent/child edges. Every parent must either exist already or be the child of an earlier edge
+     * in the list. The whole list is validated before any node is added.
+     *
+     * @param edges the edges to be created, parents first
+     * @return the number of nodes created
+     * @throws ResourceNotFoundException if a parent node does not exist
+     * @throws NodeAlreadyExistsException if one of the child nodes already exists
+     * @throws InvalidRequestException if a name is empty, appears twice or is created after its children
+     */
+    @Override
+    public int addEdges(List<NodeEdge> edges) {
+        log.debug("Adding {} edges", edges.size());
+        return insertEdges(edges);
+    }
+
+    /**
+     * Deletes a child node from a specified parent node and all its descendants.
+     *
+     * @param parentName the name of the parent node
+     * @param childName the name of the child node to be deleted
+     * @return true if the deletion was successful
+     * @throws ResourceNotFoundException if the parent or child node does not exist
+     */
+    @Override
+    public boolean deleteChild(String parentName, String childName) {
+        log.info("Deleting child node '{}' from parent '{}'", childName, parentName);
+        int removed = store.write(() -> {
+            findIdByName(parentName);
+            return store.remove(findIdByName(childName));
+        });
+        nodeMetrics.recordSubtreeSize("deleteChild", removed);
+        log.info("Successfully deleted child node '{}' and all its descendants", childName);
+        return true;
+    }
+
+    /**
+     * Moves a child node to a new parent node.
+     *
+     * @param childName the name of the child node to be moved
+     * @param newParentName the name of the new parent node
+     * @throws NodeAlreadyExistsException if the child node is already under the new parent
+     * @throws InvalidRequestException if the new parent is the node itself or one of its descendants
+     * @throws ResourceNotFoundException if the child or parent node does not exist
+     */
+    @Override
+    public void moveNode(String childName, String newParentName) {
+        log.info("Moving child node '{}' to new parent '{}'", childName, newParentName);
+        store.write(() -> {
+            long childId = findIdByName(childName);
+            long newParentId = findIdByName(newParentName);
+            if (childId == newParentId || treeIndex.isDescendant(childId, newParentId)) {
+                log.warn("Node '{}' cannot be moved under itself or its descendant '{}'", childName, newParentName);
+                throw new InvalidRequestException("You are trying to move the node under itself or one of its descendants.");
+            }
+            var currentParentId = treeIndex.parentIdOf(childId);
+            if (currentParentId.isPresent() && currentParentId.getAsLong() == newParentId) {
+                log.warn("Node '{}' is already under parent '{}'", childName, newParentName);
+                throw new NodeAlreadyExistsException("You are trying to move the node to the same parent.");
+            }
+            store.move(childId, newParentId);
+            return null;
+        });
+        log.info("Successfully moved child node '{}' to new parent '{}'", childName, newParentName);
+    }
+
+    /**
+     * Retrieves the descendants of a specified ancestor node, optionally restricted to a range of depths.
+     * Direct children are at depth 1.
+     *
+     * @param ancestorName the name of the ancestor node
+     * @param minDepth the minimum depth to include, or null for 1
+     * @param maxDepth the maximum depth to include, or null for no limit
+     * @return a list of names of the descendant nodes, closest levels first
+     * @throws ResourceNotFoundException if the ancestor node does not exist
+     * @throws InvalidRequestException if the depth range is invalid
+     */
+    @Override
+    public List<String> getDescendants(String ancestorName, Integer minDepth, Integer maxDepth) {
+        log.info("Retrieving descendants for ancestor '{}' between depths {} and {}", ancestorName, minDepth, maxDepth);
+        int from = minDepth == null ? 1 : minDepth;
+        int to = maxDepth == null ? Integer.MAX_VALUE : maxDepth;
+        if (from < 1 || to < from) {
+            throw new InvalidRequestException("Depth range must satisfy 1 <= minDepth <= maxDepth");
+        }
+        List<String> descendants = treeIndex.descendants(ancestorName, from, to)
+                .orElseThrow(() -> nodeNotFound(ancestorName));
+        log.info("Found {} descendants for ancestor '{}'", descendants.size(), ancestorName);
+        nodeMetrics.recordSubtreeSize("getDescendants", descendants.size());
+        return descendants;
+    }
+
+    /**
+     * Retrieves the path from the root of the tree down to the parent of a specified node.
+     *
+     * @param nodeName the name of the node
+     * @return the names of the ancestors of the node, root first
+     * @throws ResourceNotFoundException if the node does not exist
+     */
+    @Override
+    public List<String> getAncestors(String nodeName) {
+        log.info("Retrieving ancestors for node '{}'", nodeName);
+        List<String> ancestors = treeIndex.ancestors(nodeName).orElseThrow(() -> nodeNotFound(nodeName));
+        log.info("Found {} ancestors for node '{}'", ancestors.size(), nodeName);
+        return ancestors;
+    }
+
+    /**
+     * Retrieves one page of the descendants of a specified ancestor node, ordered by depth and id like the
+     * database engines, so cursors have the same meaning.
+     *
+     * @param ancestorName the name of the ancestor node
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of descendants to return
+     * @return the page of descendant names and the cursor of the next page, if any
+     * @throws ResourceNotFoundException if the ancestor node does not exist
+     * @throws InvalidRequestException if the cursor or the limit is invalid
+     */
+    @Override
+    public DescendantPageResponse getDescendantsPage(String ancestorName, String cursor, int limit) {
+        log.info("Retrieving up to {} descendants for ancestor '{}'", limit, ancestorName);
+        if (limit < 1 || limit > NodeManagementConstants.MAX_PAGE_LIMIT) {
+            throw new InvalidRequestException("Limit must be between 1 and " + NodeManagementConstants.MAX_PAGE_LIMIT);
+        }
+        var position = DescendantCursor.decode(cursor);
+
+        // Fetch one extra row to know whether another page follows.
+        List<DescendantProjection> rows = treeIndex.descendantsAfter(
+                        ancestorName, position.getDepth(), position.getId(), limit + 1)
+                .orElseThrow(() -> nodeNotFound(ancestorName));
+        boolean hasMore = rows.size() > limit;
+        List<DescendantProjection> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = new DescendantCursor(last.getDepth(), last.getId()).encode();
+        }
+
+        log.info("Found {} descendants for ancestor '{}' (more: {})", page.size(), ancestorName, hasMore);
+        return new DescendantPageResponse(page.stream().map(DescendantProjection::getName).toList(), nextCursor);
+    }
+
+    /**
+     * Streams the descendants of a specified ancestor node, closest levels first.
+     * The names are copied out of the tree first, so a slow consumer does not hold up writes.
+     *
+     * @param ancestorName the name of the ancestor node
+     * @param action the action invoked with the name of every descendant
+     * @throws ResourceNotFoundException if the ancestor node does not exist
+     */
+    @Override
+    public void streamDescendants(String ancestorName, Consumer<String> action) {
+        log.info("Streaming descendants for ancestor '{}'", ancestorName);
+        treeIndex.descendants(ancestorName, 1, Integer.MAX_VALUE)
+                .orElseThrow(() -> nodeNotFound(ancestorName))
+                .forEach(action);
+        log.info("Finished streaming descendants for ancestor '{}'", ancestorName);
+    }
+
+    /**
+     * Streams the direct parent/child links of the subtree below a specified node, every parent before its children,
+     * so the output can be replayed by the import.
+     *
+     * @param ancestorName the name of the subtree root
+     * @param action the action invoked with every link
+     * @throws ResourceNotFoundException if the node does not exist
+     */
+    @Override
+    public void exportSubtree(String ancestorName, Consumer<NodeEdge> action) {
+        log.info("Exporting subtree of node '{}'", ancestorName);
+        List<NodeEdge> edges = treeIndex.subtreeEdges(ancestorName).orElseThrow(() -> nodeNotFound(ancestorName));
+        edges.forEach(action);
+        log.info("Exported {} edges below node '{}'", edges.size(), ancestorName);
+    }
+
+    /**
+     * Retrieves a node by its name.
+     *
+     * @param nodeName the name of the node
+     * @return the node with the specified name
+     * @throws ResourceNotFoundException if the node does not exist
+     */
+    @Override
+    public Node getNode(String nodeName) {
+        return Node.builder().id(findIdByName(nodeName)).name(nodeName).build();
+    }
+
+    /**
+     * Validates a batch of edges and adds all of them with a single wait for the write-ahead log.
+     *
+     * @param edges the edges to be created, parents first
+     * @return the number of nodes created
+     * @throws ResourceNotFoundException if a parent node does not exist
+     * @throws NodeAlreadyExistsException if one of the child nodes already exists
+     * @throws InvalidRequestException if a name is empty, appears twice or is created after its children
+     */
+    private int insertEdges(List<NodeEdge> edges) {
+        Set<String> existingParents = NodeEdges.existingParents(edges);
+        return store.write(() -> {
+            for (NodeEdge edge : edges) {
+                checkOrThrowIfAlreadyExists(edge.getChildName());
+            }
+            Map<String, Long> ids = new HashMap<>();
+            for (String parentName : existingParents) {
+                ids.put(parentName, findIdByName(parentName));
+            }
+            for (NodeEdge edge : edges) {
+                ids.put(edge.getChildName(), store.add(edge.getChildName(), ids.get(edge.getParentName())));
+            }
+            return edges.size();
+        });
+    }
+
+    /**
+     * Finds the id of a node by its name.
+     *
+     * @param nodeName the name of the node to be found
+     * @return the id of the node
+     * @throws ResourceNotFoundException if the node is not found
+     */
+    private long findIdByName(String nodeName) {
+        return treeIndex.idOf(nodeName).orElseThrow(() -> nodeNotFound(nodeName));
+    }
+
+    /**
+     * Throws an exception if a node with the given name already exists.
+     *
+     * @param nodeName the name of the node to be created
+     * @throws NodeAlreadyExistsException if the node already exists
+     */
+    private void checkOrThrowIfAlreadyExists(String nodeName) {
+        if (treeIndex.contains(nodeName)) {
+            log.error("Node with name '{}' already exists", nodeName);
+            throw new NodeAlreadyExistsException("Node already registered with given name " + nodeName);
+        }
+    }
+
+    /**
+     * Builds the exception reported when a node cannot be found.
+     *
+     * @param nodeName the name of the missing node
+     * @return the exception to throw
+     */
+    private ResourceNotFoundException nodeNotFound(String nodeName) {
+        log.error("Node with name '{}' not found", nodeName);
+        return new ResourceNotFoundException("Node", "name", nodeName);
+    }
+}
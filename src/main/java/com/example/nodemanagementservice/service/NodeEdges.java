@@ -0,0 +1,100 @@
+package com.example.nodemanagementservice.service;
+
+import com.example.nodemanagementservice.dto.ChildNodeTreeRequest;
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request checks shared by the {@link NodeService} implementations for batches of parent/child edges.
+ */
+@Slf4j
+final class NodeEdges {
+
+    private NodeEdges() {
+    }
+
+    /**
+     * Flattens nested child trees into parent/child edges in depth-first order, so every parent precedes its children.
+     *
+     * @param parentName the name of the node the trees are added under
+     * @param children the child trees
+     * @return the edges, parents first
+     * @throws InvalidRequestException if a name is empty
+     */
+    static List<NodeEdge> flatten(String parentName, List<ChildNodeTreeRequest> children) {
+        List<NodeEdge> edges = new ArrayList<>();
+        Deque<Map.Entry<String, ChildNodeTreeRequest>> pending = new ArrayDeque<>();
+        pushChildren(pending, parentName, children);
+        while (!pending.isEmpty()) {
+            var entry = pending.pop();
+            var child = entry.getValue();
+            checkOrThrowIfBlank(child.getChildName());
+            edges.add(new NodeEdge(entry.getKey(), child.getChildName()));
+            pushChildren(pending, child.getChildName(), child.getChildren());
+        }
+        return edges;
+    }
+
+    private static void pushChildren(Deque<Map.Entry<String, ChildNodeTreeRequest>> pending,
+                                     String parentName, List<ChildNodeTreeRequest> children) {
+        if (children == null) {
+            return;
+        }
+        // Push in reverse so children are popped in request order.
+        for (int i = children.size() - 1; i >= 0; i--) {
+            pending.push(new AbstractMap.SimpleImmutableEntry<>(parentName, children.get(i)));
+        }
+    }
+
+    /**
+     * Validates a batch of edges and collects the parents that must already exist,
+     * i.e. those that are not the child of an earlier edge.
+     *
+     * @param edges the edges to be created, parents first
+     * @return the names of the existing parents, in request order
+     * @throws InvalidRequestException if a name is empty, appears twice or is created after its children
+     */
+    static Set<String> existingParents(List<NodeEdge> edges) {
+        Set<String> newNames = new HashSet<>();
+        Set<String> existingParents = new LinkedHashSet<>();
+        for (NodeEdge edge : edges) {
+            checkOrThrowIfBlank(edge.getChildName());
+            checkOrThrowIfBlank(edge.getParentName());
+            if (!newNames.contains(edge.getParentName())) {
+                existingParents.add(edge.getParentName());
+            }
+            if (existingParents.contains(edge.getChildName())) {
+                log.error("Node with name '{}' is created after one of its children", edge.getChildName());
+                throw new InvalidRequestException("Node " + edge.getChildName() + " must be created before its children");
+            }
+            if (!newNames.add(edge.getChildName())) {
+                log.error("Node with name '{}' appears more than once in the request", edge.getChildName());
+                throw new InvalidRequestException("Node name " + edge.getChildName() + " appears more than once in the request");
+            }
+        }
+        return existingParents;
+    }
+
+    /**
+     * Checks that a node name is neither null nor empty.
+     *
+     * @param nodeName the name to check
+     * @throws InvalidRequestException if the name is null or empty
+     */
+    static void checkOrThrowIfBlank(String nodeName) {
+        if (nodeName == null || nodeName.isBlank()) {
+            throw new InvalidRequestException("Name can not be a null or empty");
+        }
+    }
+}
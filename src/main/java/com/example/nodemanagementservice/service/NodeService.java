@@ -1,13 +1,24 @@
 package com.example.nodemanagementservice.service;
 
 import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.dto.ChildNodeTreeRequest;
+import com.example.nodemanagementservice.dto.DescendantPageResponse;
+import com.example.nodemanagementservice.dto.NodeEdge;
 import com.example.nodemanagementservice.entity.Node;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface NodeService {
     Node addChild(String parentName, ChildNodeRequest request);
+    int addChildren(String parentName, List<ChildNodeTreeRequest> children);
+    int addEdges(List<NodeEdge> edges);
     boolean deleteChild(String parentName, String childName);
-    void moveNode(String nodeId, String newParentId);
-    List<String> getDescendants(String ancestorName);
+    void moveNode(String childName, String newParentName);
+    List<String> getDescendants(String ancestorName, Integer minDepth, Integer maxDepth);
+    List<String> getAncestors(String nodeName);
+    DescendantPageResponse getDescendantsPage(String ancestorName, String cursor, int limit);
+    void streamDescendants(String ancestorName, Consumer<String> action);
+    void exportSubtree(String ancestorName, Consumer<NodeEdge> action);
+    Node getNode(String nodeName);
 }
\ No newline at end of file
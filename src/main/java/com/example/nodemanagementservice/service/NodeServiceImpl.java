@@ -1,31 +1,59 @@
 package com.example.nodemanagementservice.service;
 
+import com.example.nodemanagementservice.cache.DescendantCache;
+import com.example.nodemanagementservice.cache.NodeNameCache;
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
 import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.dto.ChildNodeTreeRequest;
+import com.example.nodemanagementservice.dto.DescendantPageResponse;
+import com.example.nodemanagementservice.dto.NodeEdge;
 import com.example.nodemanagementservice.entity.Node;
-import com.example.nodemanagementservice.entity.NodeRelationship;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
 import com.example.nodemanagementservice.exception.NodeAlreadyExistsException;
 import com.example.nodemanagementservice.exception.ResourceNotFoundException;
-import com.example.nodemanagementservice.repository.NodeRelationshipRepository;
+import com.example.nodemanagementservice.index.TreeIndex;
+import com.example.nodemanagementservice.metrics.NodeMetrics;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.NodeLink;
 import com.example.nodemanagementservice.repository.NodeRepository;
+import com.example.nodemanagementservice.storage.DeletedSubtree;
+import com.example.nodemanagementservice.storage.TreeStorageEngine;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing nodes and their relationships in a node management system.
  * Provides methods to add, delete, move, and retrieve descendants of nodes.
+ * The tree is stored in the database by the configured {@link TreeStorageEngine}; see {@link InMemoryNodeService}
+ * for the engine that keeps it in memory only.
  */
 @Slf4j
 @Service
+@ConditionalOnExpression("'${node-management.storage.engine:closure-table}' != 'in-memory'")
 @RequiredArgsConstructor
 public class NodeServiceImpl implements NodeService {
 
     private final NodeRepository nodeRepository;
-    private final NodeRelationshipRepository relationshipRepository;
+    private final TreeStorageEngine storageEngine;
+    private final TreeIndex treeIndex;
+    private final NodeNameCache nodeNameCache;
+    private final DescendantCache descendantCache;
+    private final EntityManager entityManager;
+    private final NodeMetrics nodeMetrics;
 
     /**
      * Adds a child node under a specified parent node.
@@ -48,12 +76,68 @@ public class NodeServiceImpl implements NodeService {
         var newChildNode = createNodeOrThrowIfAlreadyExists(request.getChildName());
 
         // Establish the relationship between the child node and its parent/ancestors.
-        addRelationshipChildToAncestors(newChildNode, parentNode);
-
-        log.info("Successfully added child node '{}' under parent '{}'", newChildNode.getName(), parentNode.getName());
+        long inserted = addRelationshipChildToAncestors(newChildNode, parentNode);
+        nodeMetrics.recordStructureRowsWritten("addChild", inserted);
+        Long childId = newChildNode.getId();
+        Long parentId = parentNode.getId();
+        afterCommit(() -> treeIndex.addNode(childId, request.getChildName(), parentId));
+        evictCachedDescendants(findAncestorIdsAndSelf(parentNode));
+
+        log.info("Successfully added child node '{}' under parent '{}'", newChildNode.getName(), parentName);
         return newChildNode;
     }
 
+    /**
+     * Adds a tree of child nodes under a specified parent node in a single transaction.
+     * Nodes are inserted in chunks and linked to the tree with one call to the storage engine.
+     *
+     * @param parentName the name of the parent node
+     * @param children the child nodes to be added, each with its own children
+     * @return the number of nodes created
+     * @throws ResourceNotFoundException if the parent node does not exist
+     * @throws NodeAlreadyExistsException if one of the nodes already exists
+     * @throws InvalidRequestException if a name is empty or appears more than once in the request
+     */
+    @Transactional(rollbackFor = {ResourceNotFoundException.class, NodeAlreadyExistsException.class, InvalidRequestException.class})
+    @Override
+    public int addChildren(String parentName, List<ChildNodeTreeRequest> children) {
+        log.info("Adding {} child trees under parent '{}'", children.size(), parentName);
+
+        // Retrieve the parent node, throwing an exception if it doesn't exist.
+        var parentNode = findNodeByName(parentName);
+        List<Long> affectedIds = findAncestorIdsAndSelf(parentNode);
+
+        // Flatten the nested document into parent/child edges, parents first.
+        List<NodeEdge> edges = NodeEdges.flatten(parentName, children);
+        int created = insertEdges(edges, "addChildren");
+        nodeMetrics.recordSubtreeSize("addChildren", created);
+        evictCachedDescendants(affectedIds);
+
+        log.info("Successfully added {} nodes under parent '{}'", created, parentName);
+        return created;
+    }
+
+    /**
+     * Adds a list of parent/child edges in a single transaction. Every parent must either exist already
+     * or be the child of an earlier edge in the list.
+     *
+     * @param edges the edges to be created, parents first
+     * @return the number of nodes created
+     * @throws ResourceNotFoundException if a parent node does not exist
+     * @throws NodeAlreadyExistsException if one of the child nodes already exists
+     * @throws InvalidRequestException if a name is empty, appears twice or is created after its children
+     */
+    @Transactional(rollbackFor = {ResourceNotFoundException.class, NodeAlreadyExistsException.class, InvalidRequestException.class})
+    @Override
+    public int addEdges(List<NodeEdge> edges) {
+        log.debug("Adding {} edges", edges.size());
+        int created = insertEdges(edges, "addEdges");
+        // The edges may hang under any number of existing nodes; drop every cached descendant list.
+        descendantCache.clear();
+        afterCommit(descendantCache::clear);
+        return created;
+    }
+
     /**
      * Deletes a child node from a specified parent node and all its descendants.
      *
@@ -67,31 +151,32 @@ public class NodeServiceImpl implements NodeService {
     public boolean deleteChild(String parentName, String childName) {
         log.info("Deleting child node '{}' from parent '{}'", childName, parentName);
 
-        // Retrieve parent and child nodes, throwing exceptions if they don't exist.
-        var parentNode = findNodeByName(parentName);
+        // Make sure both nodes exist, throwing exceptions if they don't.
+        findNodeByName(parentName);
         var childNode = findNodeByName(childName);
 
-        // Remove the direct relationship between parent and child.
-        relationshipRepository.deleteByAncestorAndDescendant(parentNode, childNode);
-        log.debug("Deleted direct relationship between parent '{}' and child '{}'", parentName, childName);
-
-        // Prepare for cascading deletion of the child node and its descendants.
-        List<Node> nodesToDelete = new ArrayList<>();
-        nodesToDelete.add(childNode);
-        while (!nodesToDelete.isEmpty()) {
-            Node currentNode = nodesToDelete.remove(nodesToDelete.size() - 1);
-            log.debug("Processing node '{}' for deletion", currentNode.getName());
-
-            // Retrieve all descendants of the current node and mark them for deletion.
-            List<NodeRelationship> descendants = relationshipRepository.findByAncestor(currentNode);
-            descendants.forEach(descendantRel -> nodesToDelete.add(descendantRel.getDescendant()));
-
-            // Delete relationships and the current node itself.
-            relationshipRepository.deleteByAncestor(currentNode);
-            relationshipRepository.deleteByDescendant(currentNode);
-            nodeRepository.delete(currentNode);
-            log.debug("Deleted node '{}' and its relationships", currentNode.getName());
+        // The ids of the subtree are only read when a cache may hold some of them; the delete itself selects
+        // the subtree in the database.
+        List<Long> affectedIds = findAncestorIdsAndSelf(childNode);
+        List<Long> subtreeIds = nodeNameCache.isEnabled() || !affectedIds.isEmpty()
+                ? storageEngine.findSubtreeIds(childNode)
+                : List.of();
+
+        DeletedSubtree deleted = storageEngine.deleteSubtree(childNode);
+        log.debug("Deleted {} relationships and {} nodes", deleted.getStructureRows(), deleted.getNodes());
+        nodeMetrics.recordStructureRowsDeleted("deleteChild", deleted.getStructureRows());
+        nodeMetrics.recordSubtreeSize("deleteChild", deleted.getNodes());
+        Long childId = childNode.getId();
+        nodeNameCache.evictIds(subtreeIds);
+        afterCommit(() -> {
+            // Evict again: a concurrent reader may have cached one of the names before this commit.
+            nodeNameCache.evictIds(subtreeIds);
+            treeIndex.removeSubtree(childId);
+        });
+        if (!affectedIds.isEmpty()) {
+            affectedIds.addAll(subtreeIds);
         }
+        evictCachedDescendants(affectedIds);
 
         log.info("Successfully deleted child node '{}' and all its descendants", childName);
         return true;
@@ -103,9 +188,10 @@ public class NodeServiceImpl implements NodeService {
      * @param childName the name of the child node to be moved
      * @param newParentName the name of the new parent node
      * @throws NodeAlreadyExistsException if the child node is already under the new parent
+     * @throws InvalidRequestException if the new parent is the node itself or one of its descendants
      * @throws ResourceNotFoundException if the child or parent node does not exist
      */
-    @Transactional(rollbackFor = {NodeAlreadyExistsException.class, ResourceNotFoundException.class})
+    @Transactional(rollbackFor = {NodeAlreadyExistsException.class, InvalidRequestException.class, ResourceNotFoundException.class})
     @Override
     public void moveNode(String childName, String newParentName) {
         log.info("Moving child node '{}' to new parent '{}'", childName, newParentName);
@@ -114,127 +200,405 @@ public class NodeServiceImpl implements NodeService {
         var childNode = findNodeByName(childName);
         var newParentNode = findNodeByName(newParentName);
 
-        // Ensure the child isn't already under the same parent.
+        // Ensure the move does not create a cycle and the child isn't already under the same parent.
+        checkOrThrowIfCycle(childNode, newParentNode);
         checkOrThrowIfSameParent(childNode, newParentNode);
 
+        // Both the old and the new ancestors see their descendants change.
+        List<Long> affectedIds = findAncestorIdsAndSelf(childNode);
+        affectedIds.addAll(findAncestorIdsAndSelf(newParentNode));
+
         // Update the parent relationship.
         moveToDirectParent(childNode, newParentNode);
+        evictCachedDescendants(affectedIds);
+        Long childId = childNode.getId();
+        Long newParentId = newParentNode.getId();
+        afterCommit(() -> treeIndex.move(childId, newParentId));
         log.info("Successfully moved child node '{}' to new parent '{}'", childName, newParentName);
     }
 
     /**
-     * Retrieves the descendants of a specified ancestor node.
+     * Retrieves the descendants of a specified ancestor node, optionally restricted to a range of depths.
+     * Direct children are at depth 1.
      *
      * @param ancestorName the name of the ancestor node
-     * @return a list of names of the descendant nodes
+     * @param minDepth the minimum depth to include, or null for 1
+     * @param maxDepth the maximum depth to include, or null for no limit
+     * @return a list of names of the descendant nodes, closest levels first
      * @throws ResourceNotFoundException if the ancestor node does not exist
+     * @throws InvalidRequestException if the depth range is invalid
      */
     @Transactional(readOnly = true)
     @Override
-    public List<String> getDescendants(String ancestorName) {
-        log.info("Retrieving descendants for ancestor '{}'", ancestorName);
+    public List<String> getDescendants(String ancestorName, Integer minDepth, Integer maxDepth) {
+        log.info("Retrieving descendants for ancestor '{}' between depths {} and {}", ancestorName, minDepth, maxDepth);
+        int from = minDepth == null ? 1 : minDepth;
+        int to = maxDepth == null ? Integer.MAX_VALUE : maxDepth;
+        if (from < 1 || to < from) {
+            throw new InvalidRequestException("Depth range must satisfy 1 <= minDepth <= maxDepth");
+        }
+
+        // Answer from the in-memory index when it is loaded.
+        if (treeIndex.isReady()) {
+            List<String> descendants = treeIndex.descendants(ancestorName, from, to)
+                    .orElseThrow(() -> nodeNotFound(ancestorName));
+            log.info("Found {} descendants for ancestor '{}' in the tree index", descendants.size(), ancestorName);
+            nodeMetrics.recordSubtreeSize("getDescendants", descendants.size());
+            return descendants;
+        }
 
         // Retrieve the ancestor node, throwing an exception if it doesn't exist.
         var ancestorNode = findNodeByName(ancestorName);
 
-        // Fetch all descendants and map them to their names.
-        List<NodeRelationship> relationships = relationshipRepository.findByAncestor(ancestorNode);
-        List<String> descendants = relationships.stream()
-                .map(r -> r.getDescendant().getName())
-                .toList();
+        Long ancestorId = ancestorNode.getId();
+        List<String> cached = descendantCache.get(ancestorId, from, to);
+        if (cached != null) {
+            log.info("Found {} descendants for ancestor '{}' in the descendant cache", cached.size(), ancestorName);
+            nodeMetrics.recordSubtreeSize("getDescendants", cached.size());
+            return cached;
+        }
+
+        // Fetch the descendant names with a single joined query, ordered by depth.
+        long generation = descendantCache.generation();
+        List<String> descendants = storageEngine.findDescendantNames(ancestorNode, from, to);
+        afterCommit(() -> descendantCache.put(ancestorId, from, to, descendants, generation));
 
         log.info("Found {} descendants for ancestor '{}'", descendants.size(), ancestorName);
+        nodeMetrics.recordSubtreeSize("getDescendants", descendants.size());
         return descendants;
     }
 
+    /**
+     * Retrieves the path from the root of the tree down to the parent of a specified node.
+     *
+     * @param nodeName the name of the node
+     * @return the names of the ancestors of the node, root first
+     * @throws ResourceNotFoundException if the node does not exist
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<String> getAncestors(String nodeName) {
+        log.info("Retrieving ancestors for node '{}'", nodeName);
+
+        // Answer from the in-memory index when it is loaded.
+        if (treeIndex.isReady()) {
+            List<String> ancestors = treeIndex.ancestors(nodeName).orElseThrow(() -> nodeNotFound(nodeName));
+            log.info("Found {} ancestors for node '{}' in the tree index", ancestors.size(), nodeName);
+            return ancestors;
+        }
+
+        // Retrieve the node, throwing an exception if it doesn't exist.
+        var node = findNodeByName(nodeName);
+
+        // Fetch the ancestor names with a single joined query, farthest first.
+        List<String> ancestors = storageEngine.findAncestorNames(node);
+
+        log.info("Found {} ancestors for node '{}'", ancestors.size(), nodeName);
+        return ancestors;
+    }
+
+    /**
+     * Retrieves one page of the descendants of a specified ancestor node using keyset pagination.
+     *
+     * @param ancestorName the name of the ancestor node
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of descendants to return
+     * @return the page of descendant names and the cursor of the next page, if any
+     * @throws ResourceNotFoundException if the ancestor node does not exist
+     * @throws InvalidRequestException if the cursor or the limit is invalid
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public DescendantPageResponse getDescendantsPage(String ancestorName, String cursor, int limit) {
+        log.info("Retrieving up to {} descendants for ancestor '{}'", limit, ancestorName);
+        if (limit < 1 || limit > NodeManagementConstants.MAX_PAGE_LIMIT) {
+            throw new InvalidRequestException("Limit must be between 1 and " + NodeManagementConstants.MAX_PAGE_LIMIT);
+        }
+        var position = DescendantCursor.decode(cursor);
+
+        // Retrieve the ancestor node, throwing an exception if it doesn't exist.
+        var ancestorNode = findNodeByName(ancestorName);
+
+        // Fetch one extra row to know whether another page follows.
+        List<DescendantProjection> rows = storageEngine.findDescendantsAfter(
+                ancestorNode, position.getDepth(), position.getId(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<DescendantProjection> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = new DescendantCursor(last.getDepth(), last.getId()).encode();
+        }
+
+        log.info("Found {} descendants for ancestor '{}' (more: {})", page.size(), ancestorName, hasMore);
+        return new DescendantPageResponse(page.stream().map(DescendantProjection::getName).toList(), nextCursor);
+    }
+
+    /**
+     * Streams the descendants of a specified ancestor node, closest levels first, without loading them all in memory.
+     * Rows are pulled from the database in chunks of the configured JDBC fetch size.
+     *
+     * @param ancestorName the name of the ancestor node
+     * @param action the action invoked with the name of every descendant
+     * @throws ResourceNotFoundException if the ancestor node does not exist
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void streamDescendants(String ancestorName, Consumer<String> action) {
+        log.info("Streaming descendants for ancestor '{}'", ancestorName);
+
+        // Retrieve the ancestor node, throwing an exception if it doesn't exist.
+        var ancestorNode = findNodeByName(ancestorName);
+
+        try (Stream<String> descendants = storageEngine.streamDescendantNames(ancestorNode)) {
+            descendants.forEach(action);
+        }
+        log.info("Finished streaming descendants for ancestor '{}'", ancestorName);
+    }
+
+    /**
+     * Streams the direct parent/child links of the subtree below a specified node with a single ordered cursor.
+     * Links are ordered by depth below the node, so every parent is emitted before its children
+     * and the output can be replayed by the import.
+     *
+     * @param ancestorName the name of the subtree root
+     * @param action the action invoked with every link
+     * @throws ResourceNotFoundException if the node does not exist
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportSubtree(String ancestorName, Consumer<NodeEdge> action) {
+        log.info("Exporting subtree of node '{}'", ancestorName);
+
+        // Retrieve the subtree root, throwing an exception if it doesn't exist.
+        var ancestorNode = findNodeByName(ancestorName);
+
+        long exported = 0;
+        try (Stream<NodeEdge> edges = storageEngine.streamSubtreeEdges(ancestorNode)) {
+            var iterator = edges.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                exported++;
+            }
+        }
+        log.info("Exported {} edges below node '{}'", exported, ancestorName);
+    }
+
+    /**
+     * Retrieves a node by its name.
+     *
+     * @param nodeName the name of the node
+     * @return the node with the specified name
+     * @throws ResourceNotFoundException if the node does not exist
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Node getNode(String nodeName) {
+        return findNodeByName(nodeName);
+    }
+
     /**
      * Establishes a relationship between a child node and its parent/ancestors.
      *
      * @param childNode the child node
      * @param parentNode the parent node
+     * @return the number of structure rows written
+     */
+    private long addRelationshipChildToAncestors(Node childNode, Node parentNode) {
+        log.debug("Adding relationship between child {} and parent {}", childNode.getId(), parentNode.getId());
+
+        long inserted = storageEngine.attach(childNode, parentNode);
+        log.trace("Wrote {} structure rows for node {}", inserted, childNode.getId());
+
+        log.debug("Successfully added relationships for child {} with parent {} and its ancestors", childNode.getId(), parentNode.getId());
+        return inserted;
+    }
+
+    /**
+     * Creates the child node of every edge and links it to its parent and ancestors.
+     * A parent must either exist already or be the child of an earlier edge.
+     * Nodes are saved in chunks, clearing the persistence context in between, and all of them
+     * are then linked by the storage engine at once.
+     *
+     * @param edges the edges to be created, parents first
+     * @param operation the name of the calling operation, for metrics
+     * @return the number of nodes created
+     * @throws ResourceNotFoundException if a parent node does not exist
+     * @throws NodeAlreadyExistsException if one of the child nodes already exists
+     * @throws InvalidRequestException if a name is empty, appears twice or is its own parent
      */
-    private void addRelationshipChildToAncestors(Node childNode, Node parentNode) {
-        log.debug("Adding relationship between child '{}' and parent '{}'", childNode.getName(), parentNode.getName());
-
-        // Create and save the direct relationship.
-        NodeRelationship directRelationship = NodeRelationship.builder()
-                .ancestor(parentNode)
-                .descendant(childNode)
-                .depth(1)
-                .build();
-        relationshipRepository.save(directRelationship);
-        log.trace("Saved direct relationship between '{}' and '{}'", parentNode.getName(), childNode.getName());
-
-        // Propagate the relationship to the parent's ancestors.
-        List<NodeRelationship> parentAncestors = relationshipRepository.findByDescendant(parentNode);
-        for (NodeRelationship ancestorRel : parentAncestors) {
-            NodeRelationship ancestorRelationship = NodeRelationship.builder()
-                    .ancestor(ancestorRel.getAncestor())
-                    .descendant(childNode)
-                    .depth(ancestorRel.getDepth() + 1)
-                    .build();
-            relationshipRepository.save(ancestorRelationship);
-            log.trace("Saved ancestor relationship between '{}' and '{}'", ancestorRel.getAncestor().getName(), childNode.getName());
+    private int insertEdges(List<NodeEdge> edges, String operation) {
+        // Validate the batch and collect the parents that must already exist.
+        Set<String> existingParents = NodeEdges.existingParents(edges);
+
+        Map<String, Long> ids = new HashMap<>();
+        for (List<String> chunk : partition(edges.stream().map(NodeEdge::getChildName).toList())) {
+            var existing = nodeRepository.findByNameIn(chunk);
+            if (!existing.isEmpty()) {
+                log.error("Node with name '{}' already exists", existing.get(0).getName());
+                throw new NodeAlreadyExistsException("Node already registered with given name " + existing.get(0).getName());
+            }
+        }
+        for (List<String> chunk : partition(new ArrayList<>(existingParents))) {
+            nodeRepository.findByNameIn(chunk).forEach(node -> ids.put(node.getName(), node.getId()));
+        }
+        for (String parentName : existingParents) {
+            if (!ids.containsKey(parentName)) {
+                throw nodeNotFound(parentName);
+            }
         }
 
-        log.debug("Successfully added relationships for child '{}' with parent '{}' and its ancestors", childNode.getName(), parentNode.getName());
+        // Save the nodes chunk by chunk; the generated ids are all the storage engine needs.
+        List<NodeLink> links = new ArrayList<>(edges.size());
+        for (List<NodeEdge> chunk : partition(edges)) {
+            List<Node> nodes = nodeRepository.saveAllAndFlush(
+                    chunk.stream().map(edge -> Node.builder().name(edge.getChildName()).build()).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long childId = nodes.get(i).getId();
+                ids.put(chunk.get(i).getChildName(), childId);
+                links.add(new NodeLink(ids.get(chunk.get(i).getParentName()), childId));
+            }
+            entityManager.clear();
+        }
+        long inserted = storageEngine.attachAll(links);
+        log.debug("Inserted {} nodes and {} structure rows", links.size(), inserted);
+        nodeMetrics.recordStructureRowsWritten(operation, inserted);
+
+        afterCommit(() -> {
+            for (int i = 0; i < edges.size(); i++) {
+                treeIndex.addNode(links.get(i).getChildId(), edges.get(i).getChildName(), links.get(i).getParentId());
+            }
+        });
+        return links.size();
+    }
+
+    private static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += NodeManagementConstants.BATCH_SIZE) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + NodeManagementConstants.BATCH_SIZE)));
+        }
+        return chunks;
     }
 
     /**
-     * Moves a node to a new direct parent and updates its relationships with descendants.
+     * Moves a node, together with its whole subtree, to a new direct parent.
+     * How many statements this takes depends on the storage engine.
      *
      * @param childNode the child node to be moved
      * @param newParentNode the new parent node
      */
     private void moveToDirectParent(Node childNode, Node newParentNode) {
-        log.debug("Moving node '{}' to new direct parent '{}'", childNode.getName(), newParentNode.getName());
-
-        // Remove existing relationships for the child node.
-        relationshipRepository.deleteByDescendant(childNode);
-        log.trace("Deleted existing relationships for node '{}'", childNode.getName());
-
-        // Add new relationships with the new parent and its ancestors.
-        addRelationshipChildToAncestors(childNode, newParentNode);
-
-        // Update relationships for the descendants of the child node.
-        List<Node> nodesToProcess = new ArrayList<>();
-        nodesToProcess.add(childNode);
-        while (!nodesToProcess.isEmpty()) {
-            Node currentNode = nodesToProcess.remove(0);
-            log.trace("Processing node '{}' for descendant relationship update", currentNode.getName());
-
-            // Retrieve and update descendant relationships.
-            List<NodeRelationship> descendantRelationships = relationshipRepository.findByAncestorOrderedById(currentNode);
-            for (NodeRelationship descendantRel : descendantRelationships) {
-                Node descendantNode = descendantRel.getDescendant();
-                var directParentRel = relationshipRepository.findByDescendantWithDepthOne(descendantNode);
-
-                if (directParentRel.isPresent()) {
-                    Node currentParentNode = directParentRel.get().getAncestor();
-                    relationshipRepository.deleteByDescendant(descendantNode);
-                    addRelationshipChildToAncestors(descendantNode, currentParentNode);
-                    nodesToProcess.add(descendantNode);
-                }
-            }
-        }
+        Long childId = childNode.getId();
+        Long newParentId = newParentNode.getId();
+        log.debug("Moving node {} to new direct parent {}", childId, newParentId);
+
+        long changed = storageEngine.move(childNode, newParentNode);
+        log.trace("Rewrote {} structure rows for the subtree of node {}", changed, childId);
+        nodeMetrics.recordStructureRowsWritten("moveNode", changed);
 
-        log.debug("Successfully moved node '{}' under new parent '{}'", childNode.getName(), newParentNode.getName());
+        log.debug("Successfully moved node {} under new parent {}", childId, newParentId);
     }
 
     /**
-     * Finds a node by its name.
+     * Finds a node by its name. When the name is in the name cache, a reference to the row is returned
+     * without querying the database; otherwise the node is loaded and its id cached once the transaction commits.
      *
      * @param nodeName the name of the node to be found
-     * @return the node with the specified name
+     * @return the node with the specified name, possibly an uninitialized reference
      * @throws ResourceNotFoundException if the node is not found
      */
     private Node findNodeByName(String nodeName) {
+        Long cachedId = nodeNameCache.get(nodeName);
+        if (cachedId != null) {
+            log.debug("Node with name '{}' resolved from the name cache", nodeName);
+            return nodeRepository.getReferenceById(cachedId);
+        }
         log.debug("Searching for node with name '{}'", nodeName);
-        return nodeRepository.findByName(nodeName).orElseThrow(
-                () -> {
-                    log.error("Node with name '{}' not found", nodeName);
-                    return new ResourceNotFoundException("Node", "name", nodeName);
-                });
+        long generation = nodeNameCache.generation();
+        Node node = nodeRepository.findByName(nodeName).orElseThrow(() -> nodeNotFound(nodeName));
+        Long nodeId = node.getId();
+        afterCommit(() -> nodeNameCache.put(nodeName, nodeId, generation));
+        return node;
+    }
+
+    /**
+     * Looks up, through the storage engine, the nodes whose descendant set changes when the subtree of a node changes:
+     * the node itself and all of its ancestors. Skipped when the descendant cache holds nothing to invalidate.
+     *
+     * @param node the node whose subtree changes
+     * @return the ids of the node and its ancestors, or an empty list if the cache is empty
+     */
+    private List<Long> findAncestorIdsAndSelf(Node node) {
+        if (descendantCache.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(storageEngine.findAncestorIds(node));
+        ids.add(node.getId());
+        return ids;
+    }
+
+    /**
+     * Evicts the cached descendants of the given ancestors now and again after commit,
+     * so a reader that cached the pre-commit state in between does not keep it.
+     * With no ancestors, i.e. when the cache was empty as the write started, the whole cache is cleared instead:
+     * every write must change the cache generation, or a read that started before it could still be cached.
+     *
+     * @param ancestorIds the ids of the ancestors whose descendants changed, or an empty list if they were not looked up
+     */
+    private void evictCachedDescendants(List<Long> ancestorIds) {
+        if (ancestorIds.isEmpty()) {
+            descendantCache.clear();
+            afterCommit(descendantCache::clear);
+            return;
+        }
+        descendantCache.evictAncestors(ancestorIds);
+        afterCommit(() -> descendantCache.evictAncestors(ancestorIds));
+    }
+
+    /**
+     * Builds the exception reported when a node cannot be found.
+     *
+     * @param nodeName the name of the missing node
+     * @return the exception to throw
+     */
+    private ResourceNotFoundException nodeNotFound(String nodeName) {
+        log.error("Node with name '{}' not found", nodeName);
+        return new ResourceNotFoundException("Node", "name", nodeName);
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or immediately when there is no transaction.
+     * Used to keep in-memory structures in line with committed data only.
+     *
+     * @param action the action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Checks if the new parent is the node itself or one of its descendants and throws an exception if so.
+     *
+     * @param childNode the node to be moved
+     * @param newParentNode the new parent node
+     * @throws InvalidRequestException if the move would create a cycle
+     */
+    private void checkOrThrowIfCycle(Node childNode, Node newParentNode) {
+        if (childNode.getId().equals(newParentNode.getId())
+                || storageEngine.isDescendant(childNode, newParentNode)) {
+            log.warn("Node '{}' cannot be moved under itself or its descendant '{}'", childNode.getName(), newParentNode.getName());
+            throw new InvalidRequestException("You are trying to move the node under itself or one of its descendants.");
+        }
     }
 
     /**
@@ -245,8 +609,8 @@ public class NodeServiceImpl implements NodeService {
      * @throws NodeAlreadyExistsException if the child node is already under the new parent
      */
     private void checkOrThrowIfSameParent(Node childNode, Node newParentNode) {
-        var currentParentNode = relationshipRepository.findByDescendantWithDepthOne(childNode).get().getAncestor();
-        if (newParentNode.getName().equals(currentParentNode.getName())) {
+        var currentParentId = storageEngine.findParentId(childNode);
+        if (currentParentId.isPresent() && newParentNode.getId().equals(currentParentId.get())) {
             log.warn("Node '{}' is already under parent '{}'", childNode.getName(), newParentNode.getName());
             throw new NodeAlreadyExistsException("You are trying to move the node to the same parent.");
         }
@@ -261,7 +625,9 @@ public class NodeServiceImpl implements NodeService {
      */
     private Node createNodeOrThrowIfAlreadyExists(String childName) {
         log.debug("Creating node with name '{}'", childName);
-        // Check if the node already exists, throwing an exception if it does.
+        // Check if the node already exists, throwing an exception if it does. Neither the tree index nor the name
+        // cache is asked: the index lags the database until the after-commit callback of a concurrent create has run,
+        // and a name that is normally new would only count as a cache miss.
         if (nodeRepository.findByName(childName).isPresent()) {
             log.error("Node with name '{}' already exists", childName);
             throw new NodeAlreadyExistsException("Node already registered with given name " + childName);
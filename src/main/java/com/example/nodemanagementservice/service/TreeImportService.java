@@ -0,0 +1,146 @@
+package com.example.nodemanagementservice.service;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.ImportResponse;
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class responsible for importing large trees from a parent/child edge list.
+ * The input is read line by line and written in batches, each in its own transaction,
+ * so memory use does not depend on the size of the file.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TreeImportService {
+
+    private final NodeService nodeService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Imports an edge list. Every parent must either exist already or be the child of an earlier line.
+     * Batches committed before a failure are kept; the error reports the line at which the failing batch starts.
+     *
+     * @param input the edge list, read until its end and then closed
+     * @param format the format of the edge list
+     * @return the number of nodes imported and the throughput
+     * @throws InvalidRequestException if a line cannot be parsed or an edge is invalid
+     */
+    public ImportResponse importEdges(InputStream input, EdgeFormat format) {
+        log.info("Importing {} edge list", format);
+        long start = System.nanoTime();
+        long imported = 0;
+        long lineNumber = 0;
+        long batchStartLine = 1;
+        List<NodeEdge> batch = new ArrayList<>(NodeManagementConstants.IMPORT_BATCH_SIZE);
+
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == EdgeFormat.CSV
+                        && line.trim().equalsIgnoreCase(EdgeFormat.CSV_HEADER))) {
+                    continue;
+                }
+                batch.add(parse(line, format, lineNumber));
+                if (batch.size() == NodeManagementConstants.IMPORT_BATCH_SIZE) {
+                    imported += writeBatch(batch, batchStartLine);
+                    batchStartLine = lineNumber + 1;
+                    logProgress(imported, start);
+                }
+            }
+            imported += writeBatch(batch, batchStartLine);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read edge list at line " + lineNumber, e);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long rate = imported * 1000 / Math.max(1, elapsedMillis);
+        log.info("Imported {} nodes in {} ms ({} nodes/s)", imported, elapsedMillis, rate);
+        return new ImportResponse(imported, elapsedMillis, rate);
+    }
+
+    private int writeBatch(List<NodeEdge> batch, long batchStartLine) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            return nodeService.addEdges(batch);
+        } catch (RuntimeException e) {
+            log.error("Import failed in the batch starting at line {}", batchStartLine);
+            throw e;
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void logProgress(long imported, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Imported {} nodes so far ({} nodes/s)", imported, Math.round(imported / Math.max(seconds, 1e-3)));
+    }
+
+    private NodeEdge parse(String line, EdgeFormat format, long lineNumber) {
+        if (format == EdgeFormat.NDJSON) {
+            try {
+                return objectMapper.readValue(line, NodeEdge.class);
+            } catch (JsonProcessingException e) {
+                throw new InvalidRequestException("Invalid edge on line " + lineNumber + ": " + e.getOriginalMessage());
+            }
+        }
+        List<String> fields = parseCsvLine(line);
+        if (fields.size() != 2) {
+            throw new InvalidRequestException("Invalid edge on line " + lineNumber + ": expected parentName,childName");
+        }
+        return new NodeEdge(fields.get(0), fields.get(1));
+    }
+
+    /**
+     * Splits a CSV line into trimmed fields. Fields may be enclosed in double quotes, with {@code ""} for a quote.
+     *
+     * @param line the line to split
+     * @return the fields of the line
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(2);
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.repository.AdjacencyListRepository;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.ParentLinkSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Adjacency-list layout: every node stores only its parent in {@code nodes.parent_id}. Adding or moving a node
+ * writes that single value, whatever the depth or the size of the subtree; descendants and ancestors are read
+ * with recursive queries, one level at a time, which suits trees that change more often than they are read.
+ */
+@Component
+@ConditionalOnProperty(name = "node-management.storage.engine", havingValue = "adjacency-list")
+@RequiredArgsConstructor
+public class AdjacencyListStorageEngine implements TreeStorageEngine {
+
+    private final AdjacencyListRepository adjacencyListRepository;
+
+    @Override
+    public long attach(Node child, Node parent) {
+        return adjacencyListRepository.writeParent(child.getId(), parent.getId());
+    }
+
+    @Override
+    public long attachAll(List<? extends NodeLinkProjection> links) {
+        return adjacencyListRepository.writeParents(links);
+    }
+
+    @Override
+    public List<Long> findSubtreeIds(Node node) {
+        List<Long> ids = new ArrayList<>(adjacencyListRepository.findDescendantIds(node.getId()));
+        ids.add(node.getId());
+        return ids;
+    }
+
+    @Override
+    public DeletedSubtree deleteSubtree(Node node) {
+        // Parents are stored on the node rows and are deleted with them.
+        return new DeletedSubtree(adjacencyListRepository.deleteSubtree(node.getId()), 0);
+    }
+
+    @Override
+    public long move(Node node, Node newParent) {
+        return adjacencyListRepository.writeParent(node.getId(), newParent.getId());
+    }
+
+    @Override
+    public boolean isDescendant(Node node, Node candidate) {
+        return adjacencyListRepository.findAncestorIds(candidate.getId()).contains(node.getId());
+    }
+
+    @Override
+    public Optional<Long> findParentId(Node node) {
+        return Optional.ofNullable(adjacencyListRepository.findParentId(node.getId()));
+    }
+
+    @Override
+    public List<Long> findAncestorIds(Node node) {
+        return adjacencyListRepository.findAncestorIds(node.getId());
+    }
+
+    @Override
+    public List<String> findDescendantNames(Node ancestor, int minDepth, int maxDepth) {
+        return adjacencyListRepository.findDescendantNames(ancestor.getId(), minDepth, maxDepth);
+    }
+
+    @Override
+    public List<DescendantProjection> findDescendantsAfter(Node ancestor, int depth, long id, int limit) {
+        return adjacencyListRepository.findDescendantsAfter(ancestor.getId(), depth, id, limit);
+    }
+
+    @Override
+    public List<String> findAncestorNames(Node node) {
+        return adjacencyListRepository.findAncestorNames(node.getId());
+    }
+
+    @Override
+    public Stream<String> streamDescendantNames(Node ancestor) {
+        return adjacencyListRepository.streamDescendantNames(ancestor.getId());
+    }
+
+    @Override
+    public Stream<NodeEdge> streamSubtreeEdges(Node ancestor) {
+        return adjacencyListRepository.streamSubtreeEdges(ancestor.getId())
+                .map(edge -> new NodeEdge(edge.getParentName(), edge.getChildName()));
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinks() {
+        // Node ids start at 1.
+        return streamParentLinksAfter(0);
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinksAfter(long childId) {
+        return adjacencyListRepository.streamParentLinksAfter(childId);
+    }
+
+    @Override
+    public ParentLinkSummary summarizeParentLinks(long maxId) {
+        return adjacencyListRepository.summarizeParentLinks(maxId);
+    }
+}
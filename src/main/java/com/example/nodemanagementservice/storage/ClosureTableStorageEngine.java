@@ -0,0 +1,126 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.NodeRelationshipRepository;
+import com.example.nodemanagementservice.repository.ParentLinkSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Closure-table layout: {@code node_relationships} holds one row per (ancestor, descendant) pair with its depth.
+ * Subtree and path reads are single index range scans; adding a node writes one row per ancestor
+ * and moving a subtree rewrites the rows between the subtree and its ancestors.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "node-management.storage.engine", havingValue = "closure-table", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ClosureTableStorageEngine implements TreeStorageEngine {
+
+    private final NodeRelationshipRepository relationshipRepository;
+
+    @Override
+    public long attach(Node child, Node parent) {
+        // Copy the parent's ancestor rows plus the direct parent row in one INSERT ... SELECT.
+        return relationshipRepository.insertPathsToAncestors(child.getId(), parent.getId());
+    }
+
+    @Override
+    public long attachAll(List<? extends NodeLinkProjection> links) {
+        return relationshipRepository.insertClosureRows(links);
+    }
+
+    @Override
+    public List<Long> findSubtreeIds(Node node) {
+        List<Long> ids = new ArrayList<>(relationshipRepository.findDescendantIds(node));
+        ids.add(node.getId());
+        return ids;
+    }
+
+    @Override
+    public DeletedSubtree deleteSubtree(Node node) {
+        // The rows from the root to its descendants are kept to select the node rows,
+        // then removed by their foreign keys: one per descendant.
+        int deleted = relationshipRepository.deleteSubtreePathsExceptFromRoot(node.getId());
+        int nodes = relationshipRepository.deleteSubtreeNodes(node.getId());
+        return new DeletedSubtree(nodes, deleted + nodes - 1L);
+    }
+
+    @Override
+    public long move(Node node, Node newParent) {
+        // Detach the subtree from its old ancestors; rows inside the subtree stay untouched.
+        int deleted = relationshipRepository.deleteSubtreePathsToAncestors(node.getId());
+        log.trace("Deleted {} relationships between subtree of node {} and its old ancestors", deleted, node.getId());
+
+        // Attach the subtree to the new parent and all of its ancestors.
+        int inserted = relationshipRepository.insertSubtreePathsToAncestors(node.getId(), newParent.getId());
+        log.trace("Inserted {} relationships between subtree of node {} and its new ancestors", inserted, node.getId());
+        return deleted + inserted;
+    }
+
+    @Override
+    public boolean isDescendant(Node node, Node candidate) {
+        return relationshipRepository.existsByAncestorAndDescendant(node, candidate);
+    }
+
+    @Override
+    public Optional<Long> findParentId(Node node) {
+        return relationshipRepository.findByDescendantWithDepthOne(node).map(r -> r.getAncestor().getId());
+    }
+
+    @Override
+    public List<Long> findAncestorIds(Node node) {
+        return relationshipRepository.findAncestorIds(node);
+    }
+
+    @Override
+    public List<String> findDescendantNames(Node ancestor, int minDepth, int maxDepth) {
+        return relationshipRepository.findDescendantNames(ancestor, minDepth, maxDepth);
+    }
+
+    @Override
+    public List<DescendantProjection> findDescendantsAfter(Node ancestor, int depth, long id, int limit) {
+        return relationshipRepository.findDescendantsAfter(ancestor, depth, id, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    public List<String> findAncestorNames(Node node) {
+        return relationshipRepository.findAncestorNames(node);
+    }
+
+    @Override
+    public Stream<String> streamDescendantNames(Node ancestor) {
+        return relationshipRepository.streamDescendantNames(ancestor);
+    }
+
+    @Override
+    public Stream<NodeEdge> streamSubtreeEdges(Node ancestor) {
+        return relationshipRepository.streamSubtreeEdges(ancestor);
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinks() {
+        return relationshipRepository.streamParentLinks();
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinksAfter(long childId) {
+        return relationshipRepository.streamParentLinksAfter(childId);
+    }
+
+    @Override
+    public ParentLinkSummary summarizeParentLinks(long maxId) {
+        return relationshipRepository.summarizeParentLinks(maxId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.nodemanagementservice.storage;
+
+import lombok.Value;
+
+/**
+ * Rows removed by {@link TreeStorageEngine#deleteSubtree}.
+ */
+@Value
+public class DeletedSubtree {
+    long nodes;
+    long structureRows;
+}
@@ -0,0 +1,27 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.index.TreeFingerprint;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.ParentLinkSummary;
+import lombok.Value;
+
+import java.util.stream.Stream;
+
+/**
+ * Count and checksum of direct links computed in memory, for layouts where the parent of a node
+ * is not a column that a query can aggregate over.
+ */
+@Value
+class LinkSummary implements ParentLinkSummary {
+    Long linkCount;
+    Long linkChecksum;
+
+    static LinkSummary of(Stream<? extends NodeLinkProjection> links) {
+        long[] totals = new long[2];
+        links.forEach(link -> {
+            totals[0]++;
+            totals[1] += TreeFingerprint.linkChecksum(link.getChildId(), link.getParentId());
+        });
+        return new LinkSummary(totals[0], totals[1]);
+    }
+}
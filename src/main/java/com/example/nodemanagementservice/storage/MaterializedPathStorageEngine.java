@@ -0,0 +1,183 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.MaterializedPathRepository;
+import com.example.nodemanagementservice.repository.NodeLink;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.NodePathProjection;
+import com.example.nodemanagementservice.repository.ParentLinkSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Materialized-path layout: every node stores the ids from its root down to itself in {@code nodes.path},
+ * e.g. {@code /1/17/204/}. A subtree is a prefix range scan of the path index, ancestors are read from the path
+ * itself, and a move rewrites the prefix of the subtree's paths with one statement. One value per node is stored,
+ * instead of one closure row per ancestor.
+ * <p>
+ * A path holds at most {@link NodeManagementConstants#MATERIALIZED_PATH_MAX_LENGTH} characters, which bounds the depth
+ * of the tree; creates and moves that would exceed it are rejected.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "node-management.storage.engine", havingValue = "materialized-path")
+@RequiredArgsConstructor
+public class MaterializedPathStorageEngine implements TreeStorageEngine {
+
+    private final MaterializedPathRepository pathRepository;
+
+    @Override
+    public long attach(Node child, Node parent) {
+        checkPathLength(pathOf(parent).length() + String.valueOf(child.getId()).length() + 1);
+        return pathRepository.writePath(child.getId(), parent.getId());
+    }
+
+    @Override
+    public long attachAll(List<? extends NodeLinkProjection> links) {
+        return pathRepository.writePaths(links);
+    }
+
+    @Override
+    public List<Long> findSubtreeIds(Node node) {
+        List<Long> ids = new ArrayList<>(pathRepository.findIdsByPathLike(descendantPattern(pathOf(node))));
+        ids.add(node.getId());
+        return ids;
+    }
+
+    @Override
+    public DeletedSubtree deleteSubtree(Node node) {
+        // Paths are stored on the node rows and are deleted with them.
+        return new DeletedSubtree(pathRepository.deleteSubtree(node.getId(), descendantPattern(pathOf(node))), 0);
+    }
+
+    @Override
+    public long move(Node node, Node newParent) {
+        String oldPrefix = pathOf(node);
+        String newPrefix = pathOf(newParent) + node.getId() + "/";
+        // The deepest path of the subtree keeps its suffix below the node and gets the new prefix.
+        int longest = Math.max(oldPrefix.length(), pathRepository.findMaxPathLength(oldPrefix + "%"));
+        checkPathLength(newPrefix.length() + longest - oldPrefix.length());
+        int updated = pathRepository.replacePrefix(node.getId(), oldPrefix, oldPrefix.length(), newPrefix, oldPrefix + "%");
+        log.trace("Rewrote {} paths from {} to {}", updated, oldPrefix, newPrefix);
+        return updated;
+    }
+
+    @Override
+    public boolean isDescendant(Node node, Node candidate) {
+        return pathRepository.countByIdAndPathLike(candidate.getId(), descendantPattern(pathOf(node))) > 0;
+    }
+
+    @Override
+    public Optional<Long> findParentId(Node node) {
+        long[] ids = parseIds(pathOf(node));
+        return ids.length < 2 ? Optional.empty() : Optional.of(ids[ids.length - 2]);
+    }
+
+    @Override
+    public List<Long> findAncestorIds(Node node) {
+        long[] ids = parseIds(pathOf(node));
+        List<Long> ancestors = new ArrayList<>(ids.length - 1);
+        for (int i = 0; i < ids.length - 1; i++) {
+            ancestors.add(ids[i]);
+        }
+        return ancestors;
+    }
+
+    @Override
+    public List<String> findDescendantNames(Node ancestor, int minDepth, int maxDepth) {
+        String path = pathOf(ancestor);
+        return pathRepository.findDescendantNames(descendantPattern(path), depthOf(path), minDepth, maxDepth);
+    }
+
+    @Override
+    public List<DescendantProjection> findDescendantsAfter(Node ancestor, int depth, long id, int limit) {
+        String path = pathOf(ancestor);
+        return pathRepository.findDescendantsAfter(descendantPattern(path), depthOf(path), depth, id, limit);
+    }
+
+    @Override
+    public List<String> findAncestorNames(Node node) {
+        List<Long> ancestorIds = findAncestorIds(node);
+        return ancestorIds.isEmpty() ? List.of() : pathRepository.findNamesInPathOrder(ancestorIds);
+    }
+
+    @Override
+    public Stream<String> streamDescendantNames(Node ancestor) {
+        return pathRepository.streamDescendantNames(descendantPattern(pathOf(ancestor)));
+    }
+
+    @Override
+    public Stream<NodeEdge> streamSubtreeEdges(Node ancestor) {
+        return pathRepository.streamSubtreeEdges(descendantPattern(pathOf(ancestor)), ancestor.getName())
+                .map(edge -> new NodeEdge(edge.getParentName(), edge.getChildName()));
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinks() {
+        // Node ids start at 1.
+        return streamParentLinksAfter(0);
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinksAfter(long childId) {
+        return pathRepository.streamPathsAfter(childId).map(MaterializedPathStorageEngine::toLink);
+    }
+
+    @Override
+    public ParentLinkSummary summarizeParentLinks(long maxId) {
+        try (Stream<NodePathProjection> paths = pathRepository.streamPathsUpTo(maxId)) {
+            return LinkSummary.of(paths.map(MaterializedPathStorageEngine::toLink));
+        }
+    }
+
+    private String pathOf(Node node) {
+        return pathRepository.findPath(node.getId());
+    }
+
+    private static void checkPathLength(int length) {
+        if (length > NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH) {
+            throw new InvalidRequestException("The tree would be too deep: node paths are limited to "
+                    + NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH + " characters");
+        }
+    }
+
+    // At least one more id after the prefix, so the node itself is excluded.
+    private static String descendantPattern(String path) {
+        return path + "_%";
+    }
+
+    private static int depthOf(String path) {
+        int slashes = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                slashes++;
+            }
+        }
+        return slashes;
+    }
+
+    private static long[] parseIds(String path) {
+        String[] parts = path.substring(1, path.length() - 1).split("/");
+        long[] ids = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ids[i] = Long.parseLong(parts[i]);
+        }
+        return ids;
+    }
+
+    private static NodeLinkProjection toLink(NodePathProjection node) {
+        long[] ids = parseIds(node.getPath());
+        return new NodeLink(ids[ids.length - 2], node.getId());
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.NestedSetRepository;
+import com.example.nodemanagementservice.repository.NodeIntervalProjection;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.ParentLinkSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Nested-set layout: every node stores an interval {@code [lft, rgt]} on {@code nodes} that strictly contains
+ * the intervals of its descendants, and its level {@code lvl}. A subtree, or any depth range of it, is one index
+ * range query, which suits read-heavy trees that rarely change.
+ * <p>
+ * Intervals are numbered with gaps: a new node takes an eighth of the free room left at the end of its parent,
+ * and at least {@value NodeManagementConstants#NESTED_SET_GAP} positions per future child for eight children.
+ * Roots span {@value NodeManagementConstants#NESTED_SET_ROOT_WIDTH} positions, so a tree about a dozen levels deep
+ * and a couple of hundred children wide is added without renumbering anything. A bulk add takes its room the same
+ * way and splits it in proportion to the size of every new subtree. Only when a parent runs out of room are the
+ * bounds after it shifted, by at least a quarter of the parent's width so the next adds fit again.
+ * Deleted and moved subtrees leave their positions free; a move copies the subtree into free room
+ * under the new parent with one statement.
+ * Roots created outside the service are numbered, after every existing interval, when their first child is added.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "node-management.storage.engine", havingValue = "nested-set")
+@RequiredArgsConstructor
+public class NestedSetStorageEngine implements TreeStorageEngine {
+
+    private static final long GAP = NodeManagementConstants.NESTED_SET_GAP;
+    private static final long ROOT_WIDTH = NodeManagementConstants.NESTED_SET_ROOT_WIDTH;
+    /**
+     * A new subtree takes one part in this many of the free room of its parent.
+     */
+    private static final long FREE_SHARE = 8;
+    /**
+     * Smallest interval given to a new node: room for {@code FREE_SHARE} children of {@code GAP} positions.
+     */
+    private static final long NODE_WIDTH = GAP * FREE_SHARE;
+
+    private final NestedSetRepository nestedSetRepository;
+
+    @Override
+    public long attach(Node child, Node parent) {
+        Slot slot = allocate(parent.getId(), NODE_WIDTH);
+        return slot.renumbered()
+                + nestedSetRepository.writeInterval(child.getId(), slot.lft(), slot.lft() + slot.width() - 1, slot.lvl());
+    }
+
+    @Override
+    public long attachAll(List<? extends NodeLinkProjection> links) {
+        // Subtree sizes within the batch, accumulated children first; links are ordered parents first.
+        Map<Long, Long> sizes = new HashMap<>();
+        for (int i = links.size() - 1; i >= 0; i--) {
+            NodeLinkProjection link = links.get(i);
+            long size = sizes.merge(link.getChildId(), 1L, Long::sum);
+            sizes.merge(link.getParentId(), size, Long::sum);
+        }
+        Map<Long, List<Long>> children = new HashMap<>();
+        Set<Long> created = new HashSet<>();
+        List<Long> outsideParents = new ArrayList<>();
+        for (NodeLinkProjection link : links) {
+            if (!created.contains(link.getParentId()) && !children.containsKey(link.getParentId())) {
+                outsideParents.add(link.getParentId());
+            }
+            children.computeIfAbsent(link.getParentId(), id -> new ArrayList<>()).add(link.getChildId());
+            created.add(link.getChildId());
+        }
+
+        // One allocation per stored parent. Its new intervals are written before the next allocation,
+        // which may shift them.
+        long written = 0;
+        for (Long parentId : outsideParents) {
+            List<Long> top = children.get(parentId);
+            long size = 0;
+            for (Long id : top) {
+                size += sizes.get(id);
+            }
+            Slot slot = allocate(parentId, NODE_WIDTH * size);
+            written += slot.renumbered() + nestedSetRepository.writeIntervals(layout(top, size, slot, children, sizes));
+        }
+        return written;
+    }
+
+    @Override
+    public List<Long> findSubtreeIds(Node node) {
+        List<Long> ids = new ArrayList<>();
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(node.getId());
+        if (interval.getLft() != null) {
+            ids.addAll(nestedSetRepository.findIdsWithin(interval.getLft(), interval.getRgt()));
+        }
+        ids.add(node.getId());
+        return ids;
+    }
+
+    @Override
+    public DeletedSubtree deleteSubtree(Node node) {
+        // Intervals are deleted with their rows and their positions stay free.
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(node.getId());
+        return new DeletedSubtree(nestedSetRepository.deleteSubtree(node.getId(), interval.getLft(), interval.getRgt()), 0);
+    }
+
+    @Override
+    public long move(Node node, Node newParent) {
+        NodeIntervalProjection interval = lockOrNumberRoot(node.getId());
+        long width = interval.getRgt() - interval.getLft() + 1;
+        Slot slot = allocate(newParent.getId(), width);
+        // Making room may have shifted the subtree itself.
+        interval = nestedSetRepository.lockInterval(node.getId());
+        int moved = nestedSetRepository.moveRange(interval.getLft(), interval.getRgt(),
+                slot.lft() - interval.getLft(), slot.lvl() - interval.getLvl());
+        log.trace("Moved {} intervals from {} to {}", moved, interval.getLft(), slot.lft());
+        return slot.renumbered() + moved;
+    }
+
+    @Override
+    public boolean isDescendant(Node node, Node candidate) {
+        NodeIntervalProjection ancestor = nestedSetRepository.findInterval(node.getId());
+        NodeIntervalProjection descendant = nestedSetRepository.findInterval(candidate.getId());
+        return ancestor.getLft() != null && descendant.getLft() != null
+                && descendant.getLft() > ancestor.getLft() && descendant.getLft() < ancestor.getRgt();
+    }
+
+    @Override
+    public Optional<Long> findParentId(Node node) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(node.getId());
+        if (interval.getLvl() == null || interval.getLvl() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(nestedSetRepository.findEnclosingId(interval.getLvl() - 1, interval.getLft()));
+    }
+
+    @Override
+    public List<Long> findAncestorIds(Node node) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(node.getId());
+        if (interval.getLvl() == null || interval.getLvl() == 0) {
+            return List.of();
+        }
+        return nestedSetRepository.findAncestorIds(interval.getLvl(), interval.getLft());
+    }
+
+    @Override
+    public List<String> findDescendantNames(Node ancestor, int minDepth, int maxDepth) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(ancestor.getId());
+        if (interval.getLft() == null) {
+            return List.of();
+        }
+        int lvl = interval.getLvl();
+        // Clamp the levels so an unbounded depth does not overflow.
+        return nestedSetRepository.findDescendantNames(interval.getLft(), interval.getRgt(),
+                lvl + minDepth, (int) Math.min(Integer.MAX_VALUE, (long) lvl + maxDepth));
+    }
+
+    @Override
+    public List<DescendantProjection> findDescendantsAfter(Node ancestor, int depth, long id, int limit) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(ancestor.getId());
+        if (interval.getLft() == null) {
+            return List.of();
+        }
+        return nestedSetRepository.findDescendantsAfter(interval.getLft(), interval.getRgt(), interval.getLvl(), depth, id, limit);
+    }
+
+    @Override
+    public List<String> findAncestorNames(Node node) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(node.getId());
+        if (interval.getLvl() == null || interval.getLvl() == 0) {
+            return List.of();
+        }
+        return nestedSetRepository.findAncestorNames(interval.getLvl(), interval.getLft());
+    }
+
+    @Override
+    public Stream<String> streamDescendantNames(Node ancestor) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(ancestor.getId());
+        if (interval.getLft() == null) {
+            return Stream.empty();
+        }
+        return nestedSetRepository.streamDescendantNames(interval.getLft(), interval.getRgt());
+    }
+
+    @Override
+    public Stream<NodeEdge> streamSubtreeEdges(Node ancestor) {
+        NodeIntervalProjection interval = nestedSetRepository.findInterval(ancestor.getId());
+        if (interval.getLft() == null) {
+            return Stream.empty();
+        }
+        return nestedSetRepository.streamSubtreeEdges(interval.getLft(), interval.getRgt())
+                .map(edge -> new NodeEdge(edge.getParentName(), edge.getChildName()));
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinks() {
+        // Node ids start at 1.
+        return streamParentLinksAfter(0);
+    }
+
+    @Override
+    public Stream<NodeLinkProjection> streamParentLinksAfter(long childId) {
+        return nestedSetRepository.streamParentLinksAfter(childId);
+    }
+
+    @Override
+    public ParentLinkSummary summarizeParentLinks(long maxId) {
+        try (Stream<NodeLinkProjection> links = nestedSetRepository.streamParentLinksUpTo(maxId)) {
+            return LinkSummary.of(links);
+        }
+    }
+
+    /**
+     * Finds free positions after the last child of a parent: an eighth of the free room, and at least
+     * {@code minWidth}. When there are fewer than {@code minWidth}, a gap is opened at the end of the parent first.
+     */
+    private Slot allocate(long parentId, long minWidth) {
+        NodeIntervalProjection parent = lockOrNumberRoot(parentId);
+        Long lastRight = nestedSetRepository.lockLastRightWithin(parent.getLft(), parent.getRgt());
+        long lft = (lastRight == null ? parent.getLft() : lastRight) + 1;
+        long free = parent.getRgt() - lft;
+        int renumbered = 0;
+        if (free < minWidth) {
+            long shift = Math.max(minWidth - free, (parent.getRgt() - parent.getLft() + 1) / 4);
+            renumbered = nestedSetRepository.openGap(parent.getRgt(), shift);
+            log.debug("Opened a gap of {} positions under node {}, renumbering {} nodes", shift, parentId, renumbered);
+            free += shift;
+        }
+        return new Slot(lft, parent.getLvl() + 1, Math.max(minWidth, free / FREE_SHARE), renumbered);
+    }
+
+    private NodeIntervalProjection lockOrNumberRoot(long nodeId) {
+        NodeIntervalProjection interval = nestedSetRepository.lockInterval(nodeId);
+        if (interval.getLft() != null) {
+            return interval;
+        }
+        Long lastRight = nestedSetRepository.lockLastRight();
+        long lft = (lastRight == null ? 0 : lastRight) + 1;
+        nestedSetRepository.writeInterval(nodeId, lft, lft + ROOT_WIDTH - 1, 0);
+        return nestedSetRepository.lockInterval(nodeId);
+    }
+
+    /**
+     * Numbers the new nodes below a parent depth first. Every interval is split in proportion to subtree sizes:
+     * a node of the batch with a subtree of {@code n} nodes gets {@code n} units of its parent's room, and passes
+     * {@code n - 1} of its own units to its children, keeping the last one free for later children.
+     */
+    private static List<long[]> layout(List<Long> top, long size, Slot slot,
+                                       Map<Long, List<Long>> children, Map<Long, Long> sizes) {
+        List<long[]> intervals = new ArrayList<>();
+        Deque<long[]> stack = new ArrayDeque<>();
+        long unit = slot.width() / size;
+        long position = slot.lft();
+        for (Long id : top) {
+            long width = unit * sizes.get(id);
+            stack.push(new long[]{id, position, width, slot.lvl()});
+            position += width;
+        }
+        while (!stack.isEmpty()) {
+            long[] node = stack.pop();
+            long id = node[0];
+            long lft = node[1];
+            long width = node[2];
+            intervals.add(new long[]{id, lft, lft + width - 1, node[3]});
+            long childUnit = (width - 1) / sizes.get(id);
+            long childPosition = lft + 1;
+            for (Long child : children.getOrDefault(id, List.of())) {
+                long childWidth = childUnit * sizes.get(child);
+                stack.push(new long[]{child, childPosition, childWidth, node[3] + 1});
+                childPosition += childWidth;
+            }
+        }
+        return intervals;
+    }
+
+    /**
+     * Free positions found under a parent, and the number of nodes renumbered to make room.
+     */
+    private record Slot(long lft, int lvl, long width, int renumbered) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.nodemanagementservice.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Adds the columns and indexes of the active storage engine to {@code nodes} when the application starts.
+ * schema.sql only creates what the default closure-table engine needs, so its deployments do not maintain
+ * the indexes of the other engines on every write. The script {@code db/engine/<engine>.sql} runs once,
+ * on a database whose {@code nodes} table lacks the engine's first column.
+ * <p>
+ * The new columns start empty, which only describes a forest of roots. A database that already holds a tree
+ * in {@code node_relationships} must be migrated with its {@code db/upgrade} script instead, and the application
+ * refuses to start until it is.
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+@ConditionalOnExpression("{'materialized-path', 'nested-set', 'adjacency-list'}"
+        + ".contains('${node-management.storage.engine:closure-table}')")
+public class StorageSchemaInitializer implements InitializingBean {
+
+    private record EngineSchema(String column, String upgradeScript) {
+    }
+
+    private static final Map<String, EngineSchema> SCHEMAS = Map.of(
+            "materialized-path", new EngineSchema("path", "002_nodes_materialized_path.sql"),
+            "nested-set", new EngineSchema("lft", "003_nodes_nested_set.sql"),
+            "adjacency-list", new EngineSchema("parent_id", "004_nodes_adjacency_list.sql"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String engine;
+
+    public StorageSchemaInitializer(JdbcTemplate jdbcTemplate,
+                                    @Value("${node-management.storage.engine:closure-table}") String engine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.engine = engine;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        EngineSchema schema = SCHEMAS.get(engine);
+        if (hasColumn(schema.column())) {
+            return;
+        }
+        Long links = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM node_relationships", Long.class);
+        if (links != null && links > 0) {
+            throw new IllegalStateException("The " + engine + " storage engine needs the nodes." + schema.column()
+                    + " column: migrate the existing tree with db/upgrade/" + schema.upgradeScript() + " first");
+        }
+        log.info("Adding the columns of the {} storage engine to nodes", engine);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/engine/" + engine + ".sql"));
+            return null;
+        });
+    }
+
+    private boolean hasColumn(String column) {
+        try {
+            jdbcTemplate.queryForList("SELECT " + column + " FROM nodes WHERE 1 = 0");
+            return true;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+}
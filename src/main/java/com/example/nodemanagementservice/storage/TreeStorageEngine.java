@@ -0,0 +1,108 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.repository.DescendantProjection;
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.ParentLinkSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage layout of the tree structure: how the parent/child relationships between the rows of {@code nodes}
+ * are persisted and queried. Rows of {@code nodes} are created by the service; an engine maintains and reads
+ * the structure around them, and deletes whole subtrees since only its structure tells which rows they span.
+ * Every method runs in the caller's transaction.
+ * <p>
+ * One engine is active per deployment, selected with {@code node-management.storage.engine}.
+ * Depths are relative to the node a query starts from: direct children are at depth 1.
+ * Lists of descendants are ordered by depth, then by node id.
+ */
+public interface TreeStorageEngine {
+
+    /**
+     * Links a new node, without children, under its parent.
+     *
+     * @return the number of structure rows written
+     */
+    long attach(Node child, Node parent);
+
+    /**
+     * Links many new nodes at once. Links are ordered parents first; a parent that is not the child
+     * of an earlier link must already be part of the tree.
+     *
+     * @return the number of structure rows written
+     */
+    long attachAll(List<? extends NodeLinkProjection> links);
+
+    /**
+     * @return the ids of a node and of all of its descendants
+     */
+    List<Long> findSubtreeIds(Node node);
+
+    /**
+     * Deletes a node with its whole subtree, structure rows first, then node rows. The subtree is selected
+     * by the database from the structure of its root, so its ids are never sent.
+     *
+     * @return the number of node rows and of structure rows deleted
+     */
+    DeletedSubtree deleteSubtree(Node node);
+
+    /**
+     * Moves a node, with its whole subtree, under a new parent that is not part of the subtree.
+     *
+     * @return the number of structure rows deleted, inserted or updated
+     */
+    long move(Node node, Node newParent);
+
+    /**
+     * @return true if {@code candidate} is a strict descendant of {@code node}
+     */
+    boolean isDescendant(Node node, Node candidate);
+
+    /**
+     * @return the id of the direct parent of a node, or empty for a root
+     */
+    Optional<Long> findParentId(Node node);
+
+    /**
+     * @return the ids of the ancestors of a node, in any order
+     */
+    List<Long> findAncestorIds(Node node);
+
+    List<String> findDescendantNames(Node ancestor, int minDepth, int maxDepth);
+
+    /**
+     * @return up to {@code limit} descendants positioned strictly after ({@code depth}, {@code id})
+     */
+    List<DescendantProjection> findDescendantsAfter(Node ancestor, int depth, long id, int limit);
+
+    /**
+     * @return the names of the ancestors of a node, root first
+     */
+    List<String> findAncestorNames(Node node);
+
+    Stream<String> streamDescendantNames(Node ancestor);
+
+    /**
+     * @return the direct links below a node, every parent before its children
+     */
+    Stream<NodeEdge> streamSubtreeEdges(Node ancestor);
+
+    /**
+     * @return every direct parent/child link of the whole forest
+     */
+    Stream<NodeLinkProjection> streamParentLinks();
+
+    /**
+     * @return the direct links whose child id is greater than {@code childId}
+     */
+    Stream<NodeLinkProjection> streamParentLinksAfter(long childId);
+
+    /**
+     * @return the count and checksum of the direct links whose child id is at most {@code maxId}
+     */
+    ParentLinkSummary summarizeParentLinks(long maxId);
+}
@@ -0,0 +1,8 @@
+-- Columns of the adjacency-list storage engine, added to nodes by StorageSchemaInitializer when it starts
+-- on a database without them. Existing trees are migrated with db/upgrade/004_nodes_adjacency_list.sql instead.
+
+-- Direct parent, no foreign key so a subtree is deleted in one statement
+ALTER TABLE nodes ADD COLUMN parent_id BIGINT NULL;
+
+-- Children of a node, covering the names
+CREATE INDEX idx_nodes_parent ON nodes (parent_id, name);
@@ -0,0 +1,9 @@
+-- Columns of the materialized-path storage engine, added to nodes by StorageSchemaInitializer when it starts
+-- on a database without them. Existing trees are migrated with db/upgrade/002_nodes_materialized_path.sql instead.
+
+-- Ids from the root down to the node, e.g. /1/17/204/. The 500 characters bound the depth of the tree
+-- (NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH); creates and moves that would exceed them are rejected.
+ALTER TABLE nodes ADD COLUMN path VARCHAR(500) NULL;
+
+-- Subtree prefix scans, covering the names
+CREATE INDEX idx_nodes_path ON nodes (path, name);
@@ -0,0 +1,16 @@
+-- Columns of the nested-set storage engine, added to nodes by StorageSchemaInitializer when it starts
+-- on a database without them. Existing trees are numbered with db/upgrade/003_nodes_nested_set.sql instead.
+
+-- Interval containing the intervals of the descendants, and depth below the root
+ALTER TABLE nodes ADD COLUMN lft BIGINT NULL;
+ALTER TABLE nodes ADD COLUMN rgt BIGINT NULL;
+ALTER TABLE nodes ADD COLUMN lvl INT NULL;
+
+-- Subtree range scans, covering levels and names
+CREATE INDEX idx_nodes_lft ON nodes (lft, lvl, name);
+
+-- Last child of an interval
+CREATE INDEX idx_nodes_rgt ON nodes (rgt);
+
+-- Enclosing node at a given level
+CREATE INDEX idx_nodes_lvl_lft ON nodes (lvl, lft);
@@ -0,0 +1,18 @@
+-- Upgrades a node_relationships table created with the surrogate id column to the composite key layout of schema.sql.
+-- Run once against an existing MySQL database before starting the new version of the service:
+--   mysql -u root -p nodemanagementservicedb < 001_node_relationships_composite_key.sql
+
+-- Remove duplicate (ancestor_id, descendant_id) pairs, keeping the oldest row.
+DELETE r1 FROM node_relationships r1
+    JOIN node_relationships r2
+      ON r1.ancestor_id = r2.ancestor_id
+     AND r1.descendant_id = r2.descendant_id
+     AND r1.id > r2.id;
+
+-- Replace the surrogate key with the pair and add the covering indexes used by the descendant and ancestor queries.
+-- The indexes MySQL created implicitly for the foreign keys become redundant and are dropped by the server.
+ALTER TABLE node_relationships
+    DROP COLUMN id,
+    ADD PRIMARY KEY (ancestor_id, descendant_id),
+    ADD INDEX idx_node_relationships_ancestor_depth (ancestor_id, depth, descendant_id),
+    ADD INDEX idx_node_relationships_descendant_depth (descendant_id, depth, ancestor_id);
@@ -0,0 +1,22 @@
+-- Adds the path column used by the materialized-path storage engine and fills it from the closure table.
+-- Run once against an existing MySQL database before starting the service with
+-- node-management.storage.engine=materialized-path:
+--   mysql -u root -p nodemanagementservicedb < 002_nodes_materialized_path.sql
+-- The service adds the column itself on a database without a tree (db/engine/materialized-path.sql); this script is for
+-- databases that already hold one in node_relationships.
+
+-- The 500 characters bound the depth of the tree (NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH): creates and
+-- moves that would exceed them are rejected. Check the longest path this script writes before switching engines.
+ALTER TABLE nodes
+    ADD COLUMN path VARCHAR(500) NULL,
+    ADD INDEX idx_nodes_path (path, name);
+
+-- Paths list the ancestors farthest first, then the node itself; roots keep a NULL path.
+SET SESSION group_concat_max_len = 1000;
+
+UPDATE nodes n
+    JOIN (SELECT r.descendant_id,
+                 CONCAT('/', GROUP_CONCAT(r.ancestor_id ORDER BY r.depth DESC SEPARATOR '/'), '/', r.descendant_id, '/') AS path
+          FROM node_relationships r
+          GROUP BY r.descendant_id) p ON p.descendant_id = n.id
+SET n.path = p.path;
@@ -0,0 +1,41 @@
+-- Adds the columns used by the nested-set storage engine and numbers the existing tree from the closure table.
+-- Run once against an existing MySQL 8 database before starting the service with
+-- node-management.storage.engine=nested-set:
+--   mysql -u root -p nodemanagementservicedb < 003_nodes_nested_set.sql
+-- The service adds the columns itself on a database without a tree (db/engine/nested-set.sql); this script is for
+-- databases that already hold one in node_relationships.
+
+ALTER TABLE nodes
+    ADD COLUMN lft BIGINT NULL,
+    ADD COLUMN rgt BIGINT NULL,
+    ADD COLUMN lvl INT NULL,
+    ADD INDEX idx_nodes_lft (lft, lvl, name),
+    ADD INDEX idx_nodes_rgt (rgt),
+    ADD INDEX idx_nodes_lvl_lft (lvl, lft);
+
+-- Pre-order rank and level of every node: the sort key concatenates the zero-padded ids from the root down.
+CREATE TEMPORARY TABLE nested_set_order
+WITH RECURSIVE tree (id, lvl, sort_key) AS (
+    SELECT n.id, 0, CAST(LPAD(n.id, 20, '0') AS CHAR(2000))
+    FROM nodes n
+    WHERE NOT EXISTS (SELECT 1 FROM node_relationships r WHERE r.descendant_id = n.id)
+    UNION ALL
+    SELECT r.descendant_id, t.lvl + 1, CONCAT(t.sort_key, LPAD(r.descendant_id, 20, '0'))
+    FROM tree t JOIN node_relationships r ON r.ancestor_id = t.id AND r.depth = 1
+)
+SELECT id, lvl, ROW_NUMBER() OVER (ORDER BY sort_key) AS rnk FROM tree;
+
+ALTER TABLE nested_set_order ADD PRIMARY KEY (id);
+
+-- Classic numbering (lft = 2 * rank - level - 1, rgt = lft + 2 * subtree size - 1), spread out by 2^20 so every
+-- node keeps about a million free positions at its end: room for dozens of new children, each with room of its own,
+-- before the engine has to renumber anything.
+UPDATE nodes n
+    JOIN nested_set_order o ON o.id = n.id
+    LEFT JOIN (SELECT ancestor_id, COUNT(*) AS descendants FROM node_relationships GROUP BY ancestor_id) s
+           ON s.ancestor_id = n.id
+SET n.lft = 1048576 * (2 * o.rnk - o.lvl - 1),
+    n.rgt = 1048576 * (2 * o.rnk - o.lvl - 1 + 2 * COALESCE(s.descendants, 0) + 1),
+    n.lvl = o.lvl;
+
+DROP TEMPORARY TABLE nested_set_order;
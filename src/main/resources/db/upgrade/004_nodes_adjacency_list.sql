@@ -0,0 +1,14 @@
+-- Adds the parent_id column used by the adjacency-list storage engine and fills it from the closure table.
+-- Run once against an existing MySQL database before starting the service with
+-- node-management.storage.engine=adjacency-list:
+--   mysql -u root -p nodemanagementservicedb < 004_nodes_adjacency_list.sql
+-- The service adds the column itself on a database without a tree (db/engine/adjacency-list.sql); this script is for
+-- databases that already hold one in node_relationships.
+
+ALTER TABLE nodes
+    ADD COLUMN parent_id BIGINT NULL,
+    ADD INDEX idx_nodes_parent (parent_id, name);
+
+UPDATE nodes n
+    JOIN node_relationships r ON r.descendant_id = n.id AND r.depth = 1
+SET n.parent_id = r.ancestor_id;
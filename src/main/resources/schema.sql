@@ -1,15 +1,24 @@
 
+-- The columns and indexes of the other storage engines are added by db/engine/<engine>.sql when that engine is used.
 CREATE TABLE IF NOT EXISTS nodes (
                                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
                                      name VARCHAR(255) NOT NULL UNIQUE
     );
 
 
+CREATE TABLE IF NOT EXISTS id_generators (
+                                             name VARCHAR(64) NOT NULL PRIMARY KEY,
+                                             next_val BIGINT NOT NULL -- Next block of ids handed out by the Node id generator
+    );
+
+
 CREATE TABLE IF NOT EXISTS node_relationships (
-                                                  id BIGINT AUTO_INCREMENT PRIMARY KEY,
                                                   ancestor_id BIGINT NOT NULL,
                                                   descendant_id BIGINT NOT NULL,
                                                   depth INT NOT NULL,
+                                                  PRIMARY KEY (ancestor_id, descendant_id), -- One row per pair, clustered by ancestor
+                                                  INDEX idx_node_relationships_ancestor_depth (ancestor_id, depth, descendant_id), -- Descendants by depth
+                                                  INDEX idx_node_relationships_descendant_depth (descendant_id, depth, ancestor_id), -- Ancestors by depth
                                                   FOREIGN KEY (ancestor_id) REFERENCES nodes(id) ON DELETE CASCADE,
     FOREIGN KEY (descendant_id) REFERENCES nodes(id) ON DELETE CASCADE -- Relazione con il nodo discendente
     );
@@ -18,3 +27,8 @@ CREATE TABLE IF NOT EXISTS node_relationships (
 INSERT INTO nodes (id, name)
 SELECT 1, 'root'
     WHERE NOT EXISTS (SELECT 1 FROM nodes WHERE name = 'root');
+
+-- Start generated ids past every existing node; a block of 50 ids may be handed out below next_val.
+INSERT INTO id_generators (name, next_val)
+SELECT 'nodes', COALESCE((SELECT MAX(id) FROM nodes), 0) + 51
+    WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE name = 'nodes');
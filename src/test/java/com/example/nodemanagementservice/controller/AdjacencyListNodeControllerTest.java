@@ -0,0 +1,10 @@
+package com.example.nodemanagementservice.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the whole controller suite against the adjacency-list storage engine.
+ */
+@TestPropertySource(properties = "node-management.storage.engine=adjacency-list")
+class AdjacencyListNodeControllerTest extends NodeControllerTest {
+}
@@ -0,0 +1,33 @@
+package com.example.nodemanagementservice.controller;
+
+import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.memory.InMemoryTreeStore;
+import com.example.nodemanagementservice.service.NodeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the whole controller suite against the in-memory storage engine.
+ * Its changes are not rolled back with the test transaction, so every test starts from a cleared store.
+ */
+@TestPropertySource(properties = {
+        "node-management.storage.engine=in-memory",
+        "node-management.memory.data-dir=target/in-memory-test"
+})
+class InMemoryNodeControllerTest extends NodeControllerTest {
+
+    @Autowired
+    private InMemoryTreeStore store;
+
+    @Autowired
+    private NodeService nodeService;
+
+    @BeforeEach
+    @Override
+    void setUp() {
+        store.clear();
+        store.addRoot("root-test");
+        nodeService.addChild("root-test", ChildNodeRequest.builder().childName("childNode").build());
+    }
+}
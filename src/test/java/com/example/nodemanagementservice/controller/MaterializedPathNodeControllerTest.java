@@ -0,0 +1,73 @@
+package com.example.nodemanagementservice.controller;
+
+import com.example.nodemanagementservice.constants.NodeManagementConstants;
+import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.exception.InvalidRequestException;
+import com.example.nodemanagementservice.service.NodeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the whole controller suite against the materialized-path storage engine.
+ */
+@TestPropertySource(properties = "node-management.storage.engine=materialized-path")
+class MaterializedPathNodeControllerTest extends NodeControllerTest {
+
+    private static final String PATH_TOO_LONG = "The tree would be too deep: node paths are limited to "
+            + NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH + " characters";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NodeService nodeService;
+
+    @Test
+    void testAddChildNode_Failure_PathTooLong() {
+        InvalidRequestException rejected = null;
+        String parent = "childNode";
+        // Every level adds at least two characters to the path.
+        for (int i = 0; rejected == null && i < NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH; i++) {
+            try {
+                nodeService.addChild(parent, ChildNodeRequest.builder().childName("level-" + i).build());
+                parent = "level-" + i;
+            } catch (InvalidRequestException e) {
+                rejected = e;
+            }
+        }
+
+        assertNotNull(rejected);
+        assertEquals(PATH_TOO_LONG, rejected.getMessage());
+    }
+
+    @Test
+    void testMoveNodeToNewParent_Failure_PathTooLong() throws Exception {
+        String deepest = "childNode";
+        try {
+            for (int i = 0; i < NodeManagementConstants.MATERIALIZED_PATH_MAX_LENGTH; i++) {
+                nodeService.addChild(deepest, ChildNodeRequest.builder().childName("level-" + i).build());
+                deepest = "level-" + i;
+            }
+        } catch (InvalidRequestException e) {
+            // The chain is as deep as paths allow.
+        }
+        // Created last, so the ids of B and C are at least as long as the one that no longer fit.
+        nodeService.addChild("root-test", ChildNodeRequest.builder().childName("B").build());
+        nodeService.addChild("B", ChildNodeRequest.builder().childName("C").build());
+
+        mockMvc.perform(put("/api/nodes/B/parent/" + deepest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.errorMessage").value(PATH_TOO_LONG));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.nodemanagementservice.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the whole controller suite against the nested-set storage engine.
+ */
+@TestPropertySource(properties = "node-management.storage.engine=nested-set")
+class NestedSetNodeControllerTest extends NodeControllerTest {
+}
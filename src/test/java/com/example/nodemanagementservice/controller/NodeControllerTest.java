@@ -4,25 +4,52 @@ import com.example.nodemanagementservice.dto.ChildNodeRequest;
 import com.example.nodemanagementservice.entity.Node;
 import com.example.nodemanagementservice.repository.NodeRelationshipRepository;
 import com.example.nodemanagementservice.repository.NodeRepository;
+import com.example.nodemanagementservice.service.EdgeFormat;
 import com.example.nodemanagementservice.service.NodeService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @Transactional
+@Import(NodeControllerTest.SameThreadAsyncConfig.class)
 class NodeControllerTest {
 
+    /**
+     * Runs streaming response bodies on the request thread, inside the test transaction,
+     * so they see the nodes the test has not committed.
+     */
+    @TestConfiguration
+    static class SameThreadAsyncConfig implements WebMvcConfigurer {
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.setTaskExecutor(new ConcurrentTaskExecutor(Runnable::run));
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -76,6 +103,88 @@ class NodeControllerTest {
                 .andExpect(jsonPath("$.errorMessage").value("Node already registered with given name childNode"));
     }
 
+    @Test
+    void testAddChildNodes_Bulk_Success() throws Exception {
+        String jsonPayload = """
+            [
+                {"childName": "A", "children": [{"childName": "B", "children": [{"childName": "C"}]}]},
+                {"childName": "D"}
+            ]
+            """;
+
+        mockMvc.perform(post("/api/nodes/childNode/children/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.nodesCreated").value(4));
+
+        mockMvc.perform(get("/api/nodes/root-test/descendants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[4]").value("C"));
+        mockMvc.perform(get("/api/nodes/C/ancestors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("root-test"))
+                .andExpect(jsonPath("$[3]").value("B"));
+    }
+
+    @Test
+    void testAddChildNodes_Bulk_Failure_NodeAlreadyExists() throws Exception {
+        String jsonPayload = """
+            [
+                {"childName": "A", "children": [{"childName": "childNode"}]}
+            ]
+            """;
+
+        mockMvc.perform(post("/api/nodes/root-test/children/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("Node already registered with given name childNode"));
+    }
+
+    @Test
+    void testImportTree_Csv_Success() throws Exception {
+        String csv = """
+            parentName,childName
+            childNode,X
+            X,"Y, quoted"
+            """;
+
+        mockMvc.perform(post("/api/nodes/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.nodesImported").value(2));
+
+        mockMvc.perform(get("/api/nodes/X/descendants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Y, quoted"));
+    }
+
+    @Test
+    void testImportTree_Ndjson_Failure_ParentNotFound() throws Exception {
+        String ndjson = """
+            {"parentName": "missing", "childName": "X"}
+            """;
+
+        mockMvc.perform(post("/api/nodes/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testExportSubtree_ParentsFirst() {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+        nodeService.addChild("A", ChildNodeRequest.builder().childName("B").build());
+
+        List<String> lines = new ArrayList<>();
+        nodeService.exportSubtree("root-test", edge -> lines.add(EdgeFormat.toCsvLine(edge)));
+
+        assertEquals(List.of("root-test,childNode", "childNode,A", "A,B"), lines);
+    }
+
     // ----- DELETE CHILD NODE TESTS -----
     @Test
     void testDeleteChildNode_Success() throws Exception {
@@ -125,6 +234,40 @@ class NodeControllerTest {
                 .andExpect(jsonPath("$.errorMessage").value("Node not found with the given input data name : 'nonExistentParent'"));
     }
 
+    @Test
+    void testMoveNodeToNewParent_MovesWholeSubtree() throws Exception {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+        nodeService.addChild("A", ChildNodeRequest.builder().childName("B").build());
+        nodeService.addChild("root-test", ChildNodeRequest.builder().childName("newParentNode").build());
+
+        mockMvc.perform(put("/api/nodes/A/parent/newParentNode")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/nodes/newParentNode/descendants")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("A"))
+                .andExpect(jsonPath("$[1]").value("B"));
+
+        mockMvc.perform(get("/api/nodes/childNode/descendants")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testMoveNodeToNewParent_Failure_MoveUnderOwnDescendant() throws Exception {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+
+        mockMvc.perform(put("/api/nodes/childNode/parent/A")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.errorMessage").value("You are trying to move the node under itself or one of its descendants."));
+    }
+
     // ----- GET DESCENDANTS TESTS -----
     @Test
     void testGetDescendants_Success() throws Exception {
@@ -140,6 +283,60 @@ class NodeControllerTest {
                 .andExpect(jsonPath("$[2]").value("B"));
     }
 
+    @Test
+    void testGetDescendants_DepthRange() throws Exception {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+
+        mockMvc.perform(get("/api/nodes/root-test/descendants")
+                        .param("maxDepth", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]").value("childNode"));
+
+        mockMvc.perform(get("/api/nodes/root-test/descendants")
+                        .param("minDepth", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]").value("A"));
+    }
+
+    @Test
+    void testGetDescendantsPage_FollowsCursor() throws Exception {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("B").build());
+
+        String firstPage = mockMvc.perform(get("/api/nodes/root-test/descendants/page")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.descendants.length()").value(2))
+                .andExpect(jsonPath("$.descendants[0]").value("childNode"))
+                .andExpect(jsonPath("$.descendants[1]").value("A"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        mockMvc.perform(get("/api/nodes/root-test/descendants/page")
+                        .param("limit", "2")
+                        .param("cursor", cursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.descendants.length()").value(1))
+                .andExpect(jsonPath("$.descendants[0]").value("B"))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void testGetDescendantsPage_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/nodes/root-test/descendants/page")
+                        .param("cursor", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
     @Test
     void testGetDescendants_NodeNotFound() throws Exception {
         mockMvc.perform(get("/api/nodes/nonExistentNode/descendants")
@@ -148,4 +345,50 @@ class NodeControllerTest {
                 .andExpect(jsonPath("$.errorCode").value("NOT_FOUND"))
                 .andExpect(jsonPath("$.errorMessage").value("Node not found with the given input data name : 'nonExistentNode'"));
     }
+
+    @Test
+    void testStreamDescendants_NdjsonInOrder() throws Exception {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+        nodeService.addChild("root-test", ChildNodeRequest.builder().childName("B").build());
+        nodeService.addChild("A", ChildNodeRequest.builder().childName("C").build());
+
+        MvcResult result = mockMvc.perform(get("/api/nodes/root-test/descendants/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("\"childNode\"\n\"B\"\n\"A\"\n\"C\"\n"));
+    }
+
+    @Test
+    void testStreamDescendants_NodeNotFound() throws Exception {
+        // The node is resolved before the response is committed, so no stream is started.
+        mockMvc.perform(get("/api/nodes/nonExistentNode/descendants/stream"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+    }
+
+    // ----- GET ANCESTORS TESTS -----
+    @Test
+    void testGetAncestors_Success() throws Exception {
+        nodeService.addChild("childNode", ChildNodeRequest.builder().childName("A").build());
+
+        mockMvc.perform(get("/api/nodes/A/ancestors")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("root-test"))
+                .andExpect(jsonPath("$[1]").value("childNode"));
+    }
+
+    @Test
+    void testGetAncestors_NodeNotFound() throws Exception {
+        mockMvc.perform(get("/api/nodes/nonExistentNode/ancestors")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.errorMessage").value("Node not found with the given input data name : 'nonExistentNode'"));
+    }
 }
\ No newline at end of file
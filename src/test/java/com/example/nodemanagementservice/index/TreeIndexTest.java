@@ -0,0 +1,155 @@
+package com.example.nodemanagementservice.index;
+
+import com.example.nodemanagementservice.repository.NodeLinkProjection;
+import com.example.nodemanagementservice.repository.NodeProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeIndexTest {
+
+    private TreeIndex treeIndex;
+
+    @BeforeEach
+    void setUp() {
+        treeIndex = new TreeIndex();
+        treeIndex.rebuild(
+                () -> Stream.of(node(1L, "root"), node(2L, "A"), node(3L, "B"), node(4L, "C")),
+                () -> Stream.of(link(1L, 2L), link(1L, 3L), link(2L, 4L)));
+    }
+
+    @Test
+    void testDescendants_OrderedByDepthThenId() {
+        assertEquals(List.of("A", "B", "C"), treeIndex.descendants("root", 1, Integer.MAX_VALUE).orElseThrow());
+        assertEquals(List.of("C"), treeIndex.descendants("root", 2, 2).orElseThrow());
+        assertTrue(treeIndex.descendants("missing", 1, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testDescendantsAfter_ResumesAtPosition() {
+        var page = treeIndex.descendantsAfter("root", 1, 2L, 2).orElseThrow();
+        assertEquals(List.of("B", "C"), page.stream().map(row -> row.getName()).toList());
+        assertEquals(2, page.get(1).getDepth());
+        assertTrue(treeIndex.descendantsAfter("root", 2, 4L, 10).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void testDescendantsAfter_ResumesAfterMissingId() {
+        // The cursor node may have been deleted since the previous page.
+        var page = treeIndex.descendantsAfter("root", 1, 1L, 10).orElseThrow();
+        assertEquals(List.of("A", "B", "C"), page.stream().map(row -> row.getName()).toList());
+        page = treeIndex.descendantsAfter("root", 2, 3L, 10).orElseThrow();
+        assertEquals(List.of("C"), page.stream().map(row -> row.getName()).toList());
+        page = treeIndex.descendantsAfter("root", 0, 0L, 10).orElseThrow();
+        assertEquals(3, page.size());
+    }
+
+    @Test
+    void testAncestors_RootFirst() {
+        assertEquals(List.of("root", "A"), treeIndex.ancestors("C").orElseThrow());
+        assertEquals(List.of(), treeIndex.ancestors("root").orElseThrow());
+    }
+
+    @Test
+    void testAddMoveAndRemove() {
+        treeIndex.addNode(5L, "D", 4L);
+        treeIndex.move(2L, 3L);
+        assertEquals(List.of("root", "B", "A", "C"), treeIndex.ancestors("D").orElseThrow());
+
+        treeIndex.removeSubtree(2L);
+        assertFalse(treeIndex.contains("A"));
+        assertFalse(treeIndex.contains("D"));
+        assertEquals(List.of("B"), treeIndex.descendants("root", 1, Integer.MAX_VALUE).orElseThrow());
+        assertTrue(treeIndex.isReady());
+    }
+
+    @Test
+    void testAddBeforeParent_WaitsForParent() {
+        // After-commit callbacks of two transactions ran in the opposite order of their commits.
+        treeIndex.addNode(6L, "E", 5L);
+        treeIndex.move(3L, 6L);
+        assertFalse(treeIndex.contains("E"));
+
+        treeIndex.addNode(5L, "D", 4L);
+        assertTrue(treeIndex.isReady());
+        assertEquals(List.of("root", "A", "C", "D", "E"), treeIndex.ancestors("B").orElseThrow());
+    }
+
+    @Test
+    void testRemoveBeforeAdd_IgnoresLateAdd() {
+        assertEquals(0, treeIndex.removeSubtree(5L));
+        treeIndex.addNode(5L, "D", 4L);
+        treeIndex.addNode(6L, "E", 5L);
+        assertTrue(treeIndex.isReady());
+        assertFalse(treeIndex.contains("D"));
+        assertFalse(treeIndex.contains("E"));
+        assertEquals(4, treeIndex.size());
+    }
+
+    @Test
+    void testMoveCreatingCycle_DisablesIndexAndNotifies() {
+        boolean[] notified = {false};
+        treeIndex.onOutOfSync(() -> notified[0] = true);
+        treeIndex.move(2L, 4L);
+        assertFalse(treeIndex.isReady());
+        assertTrue(notified[0]);
+    }
+
+    @Test
+    void testLinkChecksum_CompensatingMovesChangeTheSum() {
+        // Moving 2 from parent 10 to 13 and 3 from 10 to 8 keeps the sum of child * parent unchanged.
+        long before = TreeFingerprint.linkChecksum(2, 10) + TreeFingerprint.linkChecksum(3, 10);
+        long after = TreeFingerprint.linkChecksum(2, 13) + TreeFingerprint.linkChecksum(3, 8);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void testSnapshot_RestoreAndReplay(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("tree.snapshot");
+        TreeFingerprint written = treeIndex.writeSnapshot(file).orElseThrow();
+        long checksum = TreeFingerprint.linkChecksum(2, 1) + TreeFingerprint.linkChecksum(3, 1)
+                + TreeFingerprint.linkChecksum(4, 2);
+        assertEquals(new TreeFingerprint(4, 4, 3, checksum), written);
+
+        TreeIndex restored = new TreeIndex();
+        assertEquals(written, restored.restoreSnapshot(file));
+        assertFalse(restored.isReady());
+
+        restored.replay(() -> Stream.of(node(5L, "D")), () -> Stream.of(link(4L, 5L)));
+        assertTrue(restored.isReady());
+        assertEquals(List.of("root", "A", "C"), restored.ancestors("D").orElseThrow());
+    }
+
+    @Test
+    void testSnapshot_CorruptFileRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("tree.snapshot");
+        treeIndex.writeSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new TreeIndex().restoreSnapshot(file));
+    }
+
+    private static NodeProjection node(Long id, String name) {
+        return new NodeProjection() {
+            public Long getId() { return id; }
+            public String getName() { return name; }
+        };
+    }
+
+    private static NodeLinkProjection link(Long parentId, Long childId) {
+        return new NodeLinkProjection() {
+            public Long getParentId() { return parentId; }
+            public Long getChildId() { return childId; }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.nodemanagementservice.memory;
+
+import com.example.nodemanagementservice.dto.NodeEdge;
+import com.example.nodemanagementservice.index.TreeIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every test writes through one store and recovers the data directory with a second one, as after a crash:
+ * the first store is never stopped.
+ */
+class InMemoryTreeStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecover_ReplaysLog() {
+        Store first = open();
+        first.add("root", "A");
+        first.add("A", "B");
+        first.add("root", "C");
+        first.move("B", "C");
+        first.remove("A");
+
+        Store second = open();
+
+        assertEquals(List.of(edge("root", "C"), edge("C", "B")), second.edges());
+        assertEquals(3, second.index().size());
+    }
+
+    @Test
+    void testRecover_SnapshotThenLog() throws IOException {
+        Store first = open();
+        first.add("root", "A");
+        first.add("A", "B");
+        first.store().checkpoint();
+        first.add("root", "C");
+        first.move("B", "C");
+        assertTrue(Files.exists(dir.resolve("snapshot-2.bin")));
+        assertFalse(Files.exists(dir.resolve("wal-1.log")));
+
+        Store second = open();
+
+        assertEquals(List.of(edge("root", "A"), edge("root", "C"), edge("C", "B")), second.edges());
+        second.add("C", "D");
+        assertEquals(List.of("root", "C"), second.index().ancestors("D").orElseThrow());
+    }
+
+    @Test
+    void testRecover_DoesNotReuseIdsOfRemovedNodes() {
+        Store first = open();
+        first.add("root", "A");
+        long removed = first.add("A", "B");
+        first.remove("B");
+
+        Store second = open();
+
+        assertTrue(second.add("A", "C") > removed);
+    }
+
+    @Test
+    void testRecover_SnapshotDoesNotReuseIdsOfRemovedNodes() throws IOException {
+        Store first = open();
+        first.add("root", "A");
+        long removed = first.add("A", "B");
+        first.remove("B");
+        first.store().checkpoint();
+
+        Store second = open();
+
+        assertTrue(second.add("A", "C") > removed);
+    }
+
+    @Test
+    void testRecover_TruncatesTornTail() throws IOException {
+        Store first = open();
+        first.add("root", "A");
+        Path segment = dir.resolve("wal-1.log");
+        long complete = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        Store second = open();
+
+        assertEquals(List.of(edge("root", "A")), second.edges());
+        assertEquals(complete, Files.size(segment));
+        second.add("A", "B");
+        assertEquals(List.of(edge("root", "A"), edge("A", "B")), open().edges());
+    }
+
+    @Test
+    void testRecover_FallsBackToOlderSnapshot() throws IOException {
+        Store first = open();
+        first.add("root", "A");
+        first.store().checkpoint();
+        first.add("A", "B");
+        Files.write(dir.resolve("snapshot-3.bin"), new byte[]{1, 2, 3, 4});
+
+        Store second = open();
+
+        assertEquals(List.of(edge("root", "A"), edge("A", "B")), second.edges());
+    }
+
+    @Test
+    void testRecover_RejectsCorruptMiddleSegment() throws IOException {
+        Store first = open();
+        first.add("root", "A");
+        first.add("A", "B");
+        Path segment = dir.resolve("wal-1.log");
+        byte[] content = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(content, content.length - 3));
+        try (WriteAheadLog next = WriteAheadLog.open(dir.resolve("wal-2.log"), false)) {
+            next.appendAdd(100L, "C", 1L);
+        }
+
+        assertThrows(UncheckedIOException.class, this::open);
+    }
+
+    private Store open() {
+        TreeIndex index = new TreeIndex();
+        InMemoryTreeStore store = new InMemoryTreeStore(index, dir.toString(), false, Long.MAX_VALUE, "root");
+        store.start();
+        return new Store(store, index);
+    }
+
+    private static NodeEdge edge(String parentName, String childName) {
+        return new NodeEdge(parentName, childName);
+    }
+
+    private record Store(InMemoryTreeStore store, TreeIndex index) {
+
+        long add(String parentName, String name) {
+            return store.write(() -> store.add(name, index.idOf(parentName).orElseThrow()));
+        }
+
+        void move(String name, String newParentName) {
+            store.write(() -> {
+                store.move(index.idOf(name).orElseThrow(), index.idOf(newParentName).orElseThrow());
+                return null;
+            });
+        }
+
+        void remove(String name) {
+            store.write(() -> store.remove(index.idOf(name).orElseThrow()));
+        }
+
+        List<NodeEdge> edges() {
+            return index.subtreeEdges("root").orElseThrow();
+        }
+    }
+}
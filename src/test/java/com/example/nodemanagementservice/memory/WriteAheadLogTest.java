@@ -0,0 +1,74 @@
+package com.example.nodemanagementservice.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRead_ReplaysRecordsInOrder() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, true)) {
+            wal.appendAdd(1L, "root", 0L);
+            wal.appendAdd(2L, "é-child", 1L);
+            long last = wal.appendMove(2L, 1L);
+            wal.awaitDurable(last);
+            wal.appendRemove(2L);
+        }
+
+        List<String> records = new ArrayList<>();
+        long valid = WriteAheadLog.read(file, recorder(records));
+
+        assertEquals(List.of("add 1 root 0", "add 2 é-child 1", "move 2 1", "remove 2"), records);
+        assertEquals(Files.size(file), valid);
+    }
+
+    @Test
+    void testRead_StopsAtTornRecord() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, false)) {
+            wal.appendAdd(1L, "root", 0L);
+            wal.appendAdd(2L, "A", 1L);
+        }
+        long complete = Files.size(file);
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 3));
+
+        List<String> records = new ArrayList<>();
+        long valid = WriteAheadLog.read(file, recorder(records));
+
+        assertEquals(List.of("add 1 root 0"), records);
+        assertTrue(valid < complete - 3);
+    }
+
+    private static WriteAheadLog.Handler recorder(List<String> records) {
+        return new WriteAheadLog.Handler() {
+            @Override
+            public void add(long id, String name, long parentId) {
+                records.add("add " + id + " " + name + " " + parentId);
+            }
+
+            @Override
+            public void remove(long id) {
+                records.add("remove " + id);
+            }
+
+            @Override
+            public void move(long id, long newParentId) {
+                records.add("move " + id + " " + newParentId);
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.nodemanagementservice.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatementCountingDataSourceTest {
+
+    @Test
+    void testStatementExecutions_CountedPerThread() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        long before = SqlStatementCounter.current();
+        try (Connection wrapped = new StatementCountingDataSource(target).getConnection();
+             PreparedStatement prepared = wrapped.prepareStatement("SELECT 1")) {
+            prepared.executeQuery();
+            prepared.addBatch();
+            prepared.addBatch();
+            prepared.executeBatch();
+        }
+
+        assertEquals(2, SqlStatementCounter.current() - before);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.nodemanagementservice.service;
+
+import com.example.nodemanagementservice.cache.DescendantCache;
+import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.repository.NodeRelationshipRepository;
+import com.example.nodemanagementservice.repository.NodeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes commit here, unlike in the controller tests, so the after-commit cache maintenance runs.
+ * Each test replays a read that queried the tree before a write committed and stores its result after.
+ */
+@SpringBootTest
+class DescendantCacheConsistencyTest {
+
+    @Autowired
+    private NodeService nodeService;
+
+    @Autowired
+    private DescendantCache descendantCache;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private NodeRelationshipRepository nodeRelationshipRepository;
+
+    private long rootId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        rootId = nodeRepository.save(Node.builder().name("cache-root").build()).getId();
+        nodeService.addChild("cache-root", ChildNodeRequest.builder().childName("cache-A").build());
+        descendantCache.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        nodeRelationshipRepository.deleteAll();
+        nodeRepository.deleteAll();
+        descendantCache.clear();
+    }
+
+    @Test
+    void testAddCommittedDuringRead_StaleResultNotCached() {
+        long generation = descendantCache.generation();
+        List<String> readBeforeCommit = List.of("cache-A");
+
+        nodeService.addChild("cache-root", ChildNodeRequest.builder().childName("cache-B").build());
+        descendantCache.put(rootId, 1, Integer.MAX_VALUE, readBeforeCommit, generation);
+
+        assertNull(descendantCache.get(rootId, 1, Integer.MAX_VALUE));
+        assertEquals(List.of("cache-A", "cache-B"), nodeService.getDescendants("cache-root", null, null));
+    }
+
+    @Test
+    void testDeleteCommittedDuringRead_StaleResultNotCached() {
+        long generation = descendantCache.generation();
+        List<String> readBeforeCommit = List.of("cache-A");
+
+        nodeService.deleteChild("cache-root", "cache-A");
+        descendantCache.put(rootId, 1, Integer.MAX_VALUE, readBeforeCommit, generation);
+
+        assertNull(descendantCache.get(rootId, 1, Integer.MAX_VALUE));
+        assertEquals(List.of(), nodeService.getDescendants("cache-root", null, null));
+    }
+}
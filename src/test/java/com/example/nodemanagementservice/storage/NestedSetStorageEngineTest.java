@@ -0,0 +1,104 @@
+package com.example.nodemanagementservice.storage;
+
+import com.example.nodemanagementservice.dto.ChildNodeRequest;
+import com.example.nodemanagementservice.dto.ChildNodeTreeRequest;
+import com.example.nodemanagementservice.entity.Node;
+import com.example.nodemanagementservice.repository.NestedSetRepository;
+import com.example.nodemanagementservice.repository.NodeIntervalProjection;
+import com.example.nodemanagementservice.repository.NodeRelationshipRepository;
+import com.example.nodemanagementservice.repository.NodeRepository;
+import com.example.nodemanagementservice.service.NodeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = "node-management.storage.engine=nested-set")
+class NestedSetStorageEngineTest {
+
+    @Autowired
+    private NodeService nodeService;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private NodeRelationshipRepository nodeRelationshipRepository;
+
+    @Autowired
+    private NestedSetRepository nestedSetRepository;
+
+    @BeforeEach
+    void setUp() {
+        nodeRelationshipRepository.deleteAll();
+        nodeRepository.deleteAll();
+        nodeRepository.save(Node.builder().name("ns-root").build());
+        nodeService.addChild("ns-root", child("ns-first"));
+        nodeService.addChild("ns-root", child("ns-fresh"));
+        nodeService.addChild("ns-root", child("ns-last"));
+    }
+
+    @Test
+    void testRepeatedAddsUnderFreshNode_RenumberNothing() {
+        Map<Long, List<Long>> before = intervals();
+
+        for (int i = 0; i < 20; i++) {
+            nodeService.addChild("ns-fresh", child("ns-child-" + i));
+            nodeService.addChild("ns-child-" + i, child("ns-grandchild-" + i));
+        }
+
+        assertEquals(0, renumbered(before));
+        assertEquals(40, nodeService.getDescendants("ns-fresh", null, null).size());
+    }
+
+    @Test
+    void testAddsUnderBulkImportedLeaves_RenumberNothing() {
+        nodeService.addChildren("ns-fresh", List.of(
+                tree("ns-bulk-a", tree("ns-bulk-b"), tree("ns-bulk-c")),
+                tree("ns-bulk-d")));
+        Map<Long, List<Long>> before = intervals();
+
+        for (String leaf : List.of("ns-bulk-b", "ns-bulk-c", "ns-bulk-d")) {
+            for (int i = 0; i < 5; i++) {
+                nodeService.addChild(leaf, child(leaf + "-" + i));
+            }
+        }
+
+        assertEquals(0, renumbered(before));
+        assertEquals(List.of("ns-root", "ns-fresh", "ns-bulk-a", "ns-bulk-c"), nodeService.getAncestors("ns-bulk-c-4"));
+    }
+
+    private Map<Long, List<Long>> intervals() {
+        Map<Long, List<Long>> intervals = new HashMap<>();
+        for (Node node : nodeRepository.findAll()) {
+            NodeIntervalProjection interval = nestedSetRepository.findInterval(node.getId());
+            intervals.put(node.getId(), List.of(interval.getLft(), interval.getRgt()));
+        }
+        return intervals;
+    }
+
+    private long renumbered(Map<Long, List<Long>> before) {
+        Map<Long, List<Long>> after = intervals();
+        return before.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(after.get(entry.getKey())))
+                .count();
+    }
+
+    private static ChildNodeRequest child(String name) {
+        return ChildNodeRequest.builder().childName(name).build();
+    }
+
+    private static ChildNodeTreeRequest tree(String name, ChildNodeTreeRequest... children) {
+        return ChildNodeTreeRequest.builder().childName(name).children(List.of(children)).build();
+    }
+}